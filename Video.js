@@ -67,6 +67,46 @@ export default class Video extends Component {
     }
   };
 
+  static setTracingEnabled(enabled) {
+    if (Platform.OS === 'android' && NativeModules.ExoPlayerModule) {
+      NativeModules.ExoPlayerModule.setTracingEnabled(enabled);
+    }
+  }
+
+  static getNetworkStats() {
+    if (Platform.OS !== 'android' || !NativeModules.ExoPlayerModule) {
+      return null;
+    }
+    return NativeModules.ExoPlayerModule.getNetworkStats();
+  }
+
+  static resetNetworkStats() {
+    if (Platform.OS === 'android' && NativeModules.ExoPlayerModule) {
+      NativeModules.ExoPlayerModule.resetNetworkStats();
+    }
+  }
+
+  exportNetworkTrace = () => {
+    if (Platform.OS !== 'android' || !NativeModules.ExoPlayerModule) {
+      return Promise.resolve(null);
+    }
+    return NativeModules.ExoPlayerModule.exportNetworkTrace(findNodeHandle(this._root));
+  };
+
+  getDecoderStats = () => {
+    if (Platform.OS !== 'android' || !NativeModules.ExoPlayerModule) {
+      return null;
+    }
+    return NativeModules.ExoPlayerModule.getDecoderStats(findNodeHandle(this._root));
+  };
+
+  getPlaybackStatus = () => {
+    if (Platform.OS !== 'android' || !NativeModules.ExoPlayerModule) {
+      return null;
+    }
+    return NativeModules.ExoPlayerModule.getPlaybackStatus(findNodeHandle(this._root));
+  };
+
   presentFullscreenPlayer = () => {
     this.setNativeProps({ fullscreen: true });
   };
@@ -127,6 +167,36 @@ export default class Video extends Component {
     }
   };
 
+  _onLoadRetry = (event) => {
+    if (this.props.onLoadRetry) {
+      this.props.onLoadRetry(event.nativeEvent);
+    }
+  };
+
+  _onQoeReport = (event) => {
+    if (this.props.onQoeReport) {
+      this.props.onQoeReport(event.nativeEvent);
+    }
+  };
+
+  _onDecoderStats = (event) => {
+    if (this.props.onDecoderStats) {
+      this.props.onDecoderStats(event.nativeEvent);
+    }
+  };
+
+  _onRequestTiming = (event) => {
+    if (this.props.onRequestTiming) {
+      this.props.onRequestTiming(event.nativeEvent);
+    }
+  };
+
+  _onMemoryTrim = (event) => {
+    if (this.props.onMemoryTrim) {
+      this.props.onMemoryTrim(event.nativeEvent);
+    }
+  };
+
   _onSeek = (event) => {
     if (this.props.onSeek) {
       this.props.onSeek(event.nativeEvent);
@@ -283,6 +353,7 @@ export default class Video extends Component {
         mainVer: source.mainVer || 0,
         patchVer: source.patchVer || 0,
         requestHeaders: source.headers ? this.stringsOnlyObject(source.headers) : {},
+        alternates: source.alternates || [],
       },
       onVideoLoadStart: this._onLoadStart,
       onVideoLoad: this._onLoad,
@@ -292,6 +363,11 @@ export default class Video extends Component {
       onVideoEnd: this._onEnd,
       onVideoBuffer: this._onBuffer,
       onVideoBandwidthUpdate: this._onBandwidthUpdate,
+      onVideoLoadRetry: this._onLoadRetry,
+      onVideoMemoryTrim: this._onMemoryTrim,
+      onVideoQoeReport: this._onQoeReport,
+      onVideoDecoderStats: this._onDecoderStats,
+      onVideoRequestTiming: this._onRequestTiming,
       onTimedMetadata: this._onTimedMetadata,
       onVideoAudioBecomingNoisy: this._onAudioBecomingNoisy,
       onVideoExternalPlaybackChange: this._onExternalPlaybackChange,
@@ -362,6 +438,11 @@ Video.propTypes = {
   onVideoError: PropTypes.func,
   onVideoProgress: PropTypes.func,
   onVideoBandwidthUpdate: PropTypes.func,
+  onVideoLoadRetry: PropTypes.func,
+  onVideoMemoryTrim: PropTypes.func,
+  onVideoQoeReport: PropTypes.func,
+  onVideoDecoderStats: PropTypes.func,
+  onVideoRequestTiming: PropTypes.func,
   onVideoSeek: PropTypes.func,
   onVideoEnd: PropTypes.func,
   onTimedMetadata: PropTypes.func,
@@ -376,6 +457,7 @@ Video.propTypes = {
   source: PropTypes.oneOfType([
     PropTypes.shape({
       uri: PropTypes.string,
+      alternates: PropTypes.arrayOf(PropTypes.string),
     }),
     // Opaque type returned by require('./video.mp4')
     PropTypes.number,
@@ -422,6 +504,7 @@ Video.propTypes = {
     })
   ),
   paused: PropTypes.bool,
+  preconnect: PropTypes.bool,
   muted: PropTypes.bool,
   volume: PropTypes.number,
   bufferConfig: PropTypes.shape({
@@ -430,6 +513,15 @@ Video.propTypes = {
     bufferForPlaybackMs: PropTypes.number,
     bufferForPlaybackAfterRebufferMs: PropTypes.number,
   }),
+  liveConfig: PropTypes.shape({
+    targetOffsetMs: PropTypes.number,
+    minPlaybackSpeed: PropTypes.number,
+    maxPlaybackSpeed: PropTypes.number,
+  }),
+  offscreenConfig: PropTypes.shape({
+    holdDelayMs: PropTypes.number,
+    releaseDelayMs: PropTypes.number,
+  }),
   stereoPan: PropTypes.number,
   rate: PropTypes.number,
   pictureInPicture: PropTypes.bool,
@@ -438,6 +530,16 @@ Video.propTypes = {
   playWhenInactive: PropTypes.bool,
   ignoreSilentSwitch: PropTypes.oneOf(['ignore', 'obey']),
   reportBandwidth: PropTypes.bool,
+  bandwidthReportInterval: PropTypes.number,
+  reportRequestTiming: PropTypes.bool,
+  recordNetworkTrace: PropTypes.bool,
+  qoeReportInterval: PropTypes.number,
+  decoderStatsInterval: PropTypes.number,
+  eventThrottle: PropTypes.objectOf(PropTypes.shape({
+    minInterval: PropTypes.number,
+    edge: PropTypes.oneOf(['leading', 'trailing']),
+    changeThreshold: PropTypes.number,
+  })),
   disableFocus: PropTypes.bool,
   controls: PropTypes.bool,
   audioOnly: PropTypes.bool,
@@ -455,6 +557,11 @@ Video.propTypes = {
   onError: PropTypes.func,
   onProgress: PropTypes.func,
   onBandwidthUpdate: PropTypes.func,
+  onLoadRetry: PropTypes.func,
+  onMemoryTrim: PropTypes.func,
+  onQoeReport: PropTypes.func,
+  onDecoderStats: PropTypes.func,
+  onRequestTiming: PropTypes.func,
   onSeek: PropTypes.func,
   onEnd: PropTypes.func,
   onFullscreenPlayerWillPresent: PropTypes.func,
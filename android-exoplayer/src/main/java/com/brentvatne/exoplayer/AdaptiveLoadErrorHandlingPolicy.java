@@ -0,0 +1,258 @@
+package com.brentvatne.exoplayer;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.SystemClock;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.ParserException;
+import com.google.android.exoplayer2.upstream.DefaultLoadErrorHandlingPolicy;
+import com.google.android.exoplayer2.upstream.HttpDataSource;
+import com.google.android.exoplayer2.upstream.LoadErrorHandlingPolicy;
+import com.google.android.exoplayer2.upstream.Loader;
+import com.google.android.exoplayer2.util.Util;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A {@link LoadErrorHandlingPolicy} that spreads retries out to avoid retry storms against a
+ * struggling server.
+ *
+ * <ul>
+ *     <li>Server errors and timeouts are retried with an exponential backoff with jitter, honouring
+ *     any Retry-After header.</li>
+ *     <li>Client errors are retried at a slow fixed pace, as they rarely go away on their own.</li>
+ *     <li>Server errors, timeouts and network errors are recorded against the host's
+ *     {@link HostCircuitBreaker}, which stops every player from sending requests to a host failing
+ *     repeatedly for a cooldown period. Loads failing on an open circuit are retried once it
+ *     closes.</li>
+ *     <li>While the device is offline retries are polled at a short fixed delay, so that loading
+ *     resumes quickly once connectivity returns instead of waiting out a long backoff.</li>
+ * </ul>
+ */
+public class AdaptiveLoadErrorHandlingPolicy implements LoadErrorHandlingPolicy {
+
+    public static final String REASON_SERVER_ERROR = "serverError";
+    public static final String REASON_CLIENT_ERROR = "clientError";
+    public static final String REASON_TIMEOUT = "timeout";
+    public static final String REASON_NETWORK = "network";
+    public static final String REASON_OFFLINE = "offline";
+    public static final String REASON_CIRCUIT_OPEN = "circuitOpen";
+
+    /**
+     * Receives the retry counters every time a load is retried.
+     */
+    public interface Listener {
+        void onLoadRetry(String host, String reason, int errorCount, long retryDelayMs,
+                         RetryCounters counters);
+    }
+
+    /**
+     * Retry counters, accumulated over the lifetime of the policy.
+     */
+    public static class RetryCounters {
+        public int retryCount;
+        public int serverErrorCount;
+        public int clientErrorCount;
+        public int timeoutCount;
+        public int networkErrorCount;
+        public int circuitOpenCount;
+
+        RetryCounters copy() {
+            RetryCounters copy = new RetryCounters();
+            copy.retryCount = retryCount;
+            copy.serverErrorCount = serverErrorCount;
+            copy.clientErrorCount = clientErrorCount;
+            copy.timeoutCount = timeoutCount;
+            copy.networkErrorCount = networkErrorCount;
+            copy.circuitOpenCount = circuitOpenCount;
+            return copy;
+        }
+    }
+
+    private static final long BASE_RETRY_DELAY_MS = 500;
+    private static final long MAX_RETRY_DELAY_MS = 16000;
+    private static final long CLIENT_ERROR_RETRY_DELAY_MS = 5000;
+    private static final long OFFLINE_RETRY_DELAY_MS = 1000;
+
+    private final Context context;
+    private final int minLoadRetryCount;
+    private final DefaultLoadErrorHandlingPolicy defaultPolicy;
+    private final Random random = new Random();
+    private final RetryCounters counters = new RetryCounters();
+
+    private Handler listenerHandler;
+    private Listener listener;
+
+    public AdaptiveLoadErrorHandlingPolicy(Context context, int minLoadRetryCount) {
+        this.context = context.getApplicationContext();
+        this.minLoadRetryCount = minLoadRetryCount;
+        this.defaultPolicy = new DefaultLoadErrorHandlingPolicy(minLoadRetryCount);
+    }
+
+    /**
+     * Sets the listener notified, on the thread of {@code handler}, every time a load is retried.
+     */
+    public void setListener(Handler handler, Listener listener) {
+        this.listenerHandler = handler;
+        this.listener = listener;
+    }
+
+    @Override
+    public long getBlacklistDurationMsFor(int dataType, long loadDurationMs, IOException exception,
+                                          int errorCount) {
+        return defaultPolicy.getBlacklistDurationMsFor(dataType, loadDurationMs, exception, errorCount);
+    }
+
+    @Override
+    public long getRetryDelayMsFor(int dataType, long loadDurationMs, IOException exception,
+                                   int errorCount) {
+        if (exception instanceof ParserException
+                || exception instanceof FileNotFoundException
+                || exception instanceof Loader.UnexpectedLoaderException) {
+            return C.TIME_UNSET;
+        }
+
+        String host = getHost(exception);
+        long nowMs = SystemClock.elapsedRealtime();
+        String reason;
+        long retryDelayMs;
+        synchronized (counters) {
+            HostCircuitBreaker.CircuitOpenException circuitOpenException = getCircuitOpenException(exception);
+            if (circuitOpenException != null) {
+                // Rejected without reaching the host, so it doesn't count as another failure
+                reason = REASON_CIRCUIT_OPEN;
+                retryDelayMs = Math.max(OFFLINE_RETRY_DELAY_MS,
+                        HostCircuitBreaker.getInstance().getOpenDurationMs(circuitOpenException.host, nowMs));
+                counters.circuitOpenCount++;
+            } else if (Util.getNetworkType(context) == C.NETWORK_TYPE_OFFLINE) {
+                // Failing because there is no connection says nothing about the host
+                reason = REASON_OFFLINE;
+                retryDelayMs = OFFLINE_RETRY_DELAY_MS;
+                counters.networkErrorCount++;
+            } else {
+                int responseCode = getResponseCode(exception);
+                if (responseCode >= 400 && responseCode < 500 && responseCode != 408 && responseCode != 429) {
+                    reason = REASON_CLIENT_ERROR;
+                    retryDelayMs = CLIENT_ERROR_RETRY_DELAY_MS;
+                    counters.clientErrorCount++;
+                } else {
+                    if (responseCode >= 500 || responseCode == 408 || responseCode == 429) {
+                        reason = REASON_SERVER_ERROR;
+                        counters.serverErrorCount++;
+                    } else if (isTimeout(exception)) {
+                        reason = REASON_TIMEOUT;
+                        counters.timeoutCount++;
+                    } else {
+                        reason = REASON_NETWORK;
+                        counters.networkErrorCount++;
+                    }
+                    retryDelayMs = Math.max(getBackoffDelayMs(errorCount), getRetryAfterMs(exception));
+                    long circuitDelayMs = host != null
+                            ? HostCircuitBreaker.getInstance().recordFailure(host, nowMs) : 0;
+                    if (circuitDelayMs > retryDelayMs) {
+                        reason = REASON_CIRCUIT_OPEN;
+                        retryDelayMs = circuitDelayMs;
+                        counters.circuitOpenCount++;
+                    }
+                }
+            }
+            counters.retryCount++;
+            notifyRetry(host, reason, errorCount, retryDelayMs, counters.copy());
+        }
+        return retryDelayMs;
+    }
+
+    @Override
+    public int getMinimumLoadableRetryCount(int dataType) {
+        return minLoadRetryCount;
+    }
+
+    private void notifyRetry(final String host, final String reason, final int errorCount,
+                             final long retryDelayMs, final RetryCounters countersCopy) {
+        final Listener listener = this.listener;
+        if (listener == null || listenerHandler == null) {
+            return;
+        }
+        listenerHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onLoadRetry(host, reason, errorCount, retryDelayMs, countersCopy);
+            }
+        });
+    }
+
+    /**
+     * Returns an exponential backoff delay with equal jitter, so that players failing at the same
+     * time don't all retry at the same time.
+     */
+    private long getBackoffDelayMs(int errorCount) {
+        long delayMs = Math.min(MAX_RETRY_DELAY_MS,
+                BASE_RETRY_DELAY_MS << Math.min(Math.max(0, errorCount - 1), 10));
+        return delayMs / 2 + (long) (random.nextDouble() * delayMs / 2);
+    }
+
+    private static String getHost(IOException exception) {
+        if (exception instanceof HttpDataSource.HttpDataSourceException) {
+            HttpDataSource.HttpDataSourceException httpException = (HttpDataSource.HttpDataSourceException) exception;
+            if (httpException.dataSpec != null && httpException.dataSpec.uri != null) {
+                return httpException.dataSpec.uri.getHost();
+            }
+        }
+        return null;
+    }
+
+    private static int getResponseCode(IOException exception) {
+        if (exception instanceof HttpDataSource.InvalidResponseCodeException) {
+            return ((HttpDataSource.InvalidResponseCodeException) exception).responseCode;
+        }
+        return 0;
+    }
+
+    private static HostCircuitBreaker.CircuitOpenException getCircuitOpenException(IOException exception) {
+        Throwable cause = exception;
+        while (cause != null) {
+            if (cause instanceof HostCircuitBreaker.CircuitOpenException) {
+                return (HostCircuitBreaker.CircuitOpenException) cause;
+            }
+            cause = cause.getCause();
+        }
+        return null;
+    }
+
+    private static boolean isTimeout(IOException exception) {
+        Throwable cause = exception;
+        while (cause != null) {
+            if (cause instanceof SocketTimeoutException) {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
+    private static long getRetryAfterMs(IOException exception) {
+        if (!(exception instanceof HttpDataSource.InvalidResponseCodeException)) {
+            return 0;
+        }
+        Map<String, List<String>> headers = ((HttpDataSource.InvalidResponseCodeException) exception).headerFields;
+        if (headers == null) {
+            return 0;
+        }
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if ("Retry-After".equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+                try {
+                    return Math.min(MAX_RETRY_DELAY_MS, Long.parseLong(header.getValue().get(0).trim()) * 1000);
+                } catch (NumberFormatException ignore) {
+                    // Only the delay-seconds form is supported
+                }
+            }
+        }
+        return 0;
+    }
+}
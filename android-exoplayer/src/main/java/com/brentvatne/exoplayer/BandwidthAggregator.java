@@ -0,0 +1,131 @@
+package com.brentvatne.exoplayer;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Aggregates bandwidth meter samples into a smoothed throughput and percentiles over the most
+ * recent samples, along with the throughput of the media loads of each video rendition, so they
+ * can be reported as one summary instead of one event per sample.
+ */
+class BandwidthAggregator {
+
+    /**
+     * Throughput measured while loading the media of a video rendition.
+     */
+    static class Rendition {
+        final String trackId;
+        final int width;
+        final int height;
+        private long bytes;
+        private long elapsedMs;
+
+        Rendition(String trackId, int width, int height) {
+            this.trackId = trackId;
+            this.width = width;
+            this.height = height;
+        }
+
+        long getThroughput() {
+            return elapsedMs > 0 ? bytes * 8000 / elapsedMs : 0;
+        }
+    }
+
+    private static final int WINDOW_SIZE = 32;
+    private static final double EWMA_WEIGHT = 0.3;
+    // Relative change of the smoothed throughput that is reported right away
+    private static final double SIGNIFICANT_CHANGE = 0.25;
+
+    private final long[] window = new long[WINDOW_SIZE];
+    private final long[] sortedWindow = new long[WINDOW_SIZE];
+    private final Map<String, Rendition> renditions = new LinkedHashMap<>();
+    private int sampleCount;
+    private int unreportedSampleCount;
+    private long ewma;
+    private long reportedEwma;
+    private boolean sorted;
+
+    void addSample(int elapsedMs, long bytes) {
+        if (elapsedMs <= 0) {
+            return;
+        }
+        long throughput = bytes * 8000 / elapsedMs;
+        window[sampleCount % WINDOW_SIZE] = throughput;
+        ewma = sampleCount == 0 ? throughput : (long) (EWMA_WEIGHT * throughput + (1 - EWMA_WEIGHT) * ewma);
+        sampleCount++;
+        unreportedSampleCount++;
+        sorted = false;
+    }
+
+    /**
+     * Adds a completed media load of a video rendition to the throughput of that rendition.
+     */
+    void addRenditionLoad(String trackId, int width, int height, long bytes, long elapsedMs) {
+        if (elapsedMs <= 0) {
+            return;
+        }
+        Rendition rendition = renditions.get(trackId);
+        if (rendition == null) {
+            rendition = new Rendition(trackId, width, height);
+            renditions.put(trackId, rendition);
+        }
+        rendition.bytes += bytes;
+        rendition.elapsedMs += elapsedMs;
+    }
+
+    boolean hasUnreportedSamples() {
+        return unreportedSampleCount > 0;
+    }
+
+    /**
+     * Returns whether the smoothed throughput moved enough since the last report to be reported
+     * right away.
+     */
+    boolean hasSignificantChange() {
+        return unreportedSampleCount > 0
+                && (reportedEwma == 0 || Math.abs(ewma - reportedEwma) > reportedEwma * SIGNIFICANT_CHANGE);
+    }
+
+    void markReported() {
+        unreportedSampleCount = 0;
+        reportedEwma = ewma;
+    }
+
+    void reset() {
+        sampleCount = 0;
+        unreportedSampleCount = 0;
+        ewma = 0;
+        reportedEwma = 0;
+        renditions.clear();
+    }
+
+    long getEwma() {
+        return ewma;
+    }
+
+    int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Returns the throughput below which the given fraction of the most recent samples fall.
+     */
+    long getPercentile(double fraction) {
+        int size = Math.min(sampleCount, WINDOW_SIZE);
+        if (size == 0) {
+            return 0;
+        }
+        if (!sorted) {
+            System.arraycopy(window, 0, sortedWindow, 0, size);
+            Arrays.sort(sortedWindow, 0, size);
+            sorted = true;
+        }
+        return sortedWindow[Math.min(size - 1, (int) (fraction * size))];
+    }
+
+    Collection<Rendition> getRenditions() {
+        return renditions.values();
+    }
+}
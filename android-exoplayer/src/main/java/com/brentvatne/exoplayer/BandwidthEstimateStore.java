@@ -0,0 +1,54 @@
+package com.brentvatne.exoplayer;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.google.android.exoplayer2.C;
+
+/**
+ * Persists bandwidth estimates per network type, so that the bandwidth meter can be seeded with a
+ * realistic estimate after a cold start instead of a default bitrate guess.
+ *
+ * <p>The estimates aren't kept per host: {@link com.google.android.exoplayer2.upstream.DefaultBandwidthMeter}
+ * only takes initial estimates when it is built, once per process for the meter shared by every
+ * player, so it couldn't be reseeded for the host of each source.
+ */
+class BandwidthEstimateStore {
+
+    private static final String PREFERENCES_NAME = "RNVideoBandwidthEstimates";
+    private static final String KEY_ESTIMATE = "estimate";
+
+    static final int[] NETWORK_TYPES = {
+            C.NETWORK_TYPE_WIFI,
+            C.NETWORK_TYPE_ETHERNET,
+            C.NETWORK_TYPE_2G,
+            C.NETWORK_TYPE_3G,
+            C.NETWORK_TYPE_4G,
+            C.NETWORK_TYPE_CELLULAR_UNKNOWN,
+            C.NETWORK_TYPE_OTHER,
+    };
+
+    private final SharedPreferences preferences;
+
+    BandwidthEstimateStore(Context context) {
+        this.preferences = context.getApplicationContext()
+                .getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Returns the persisted estimate in bits per second, or 0 if none was recorded.
+     */
+    long getEstimate(int networkType) {
+        return preferences.getLong(estimateKey(networkType), 0);
+    }
+
+    void putEstimate(int networkType, long bitrateEstimate) {
+        preferences.edit()
+                .putLong(estimateKey(networkType), bitrateEstimate)
+                .apply();
+    }
+
+    private static String estimateKey(int networkType) {
+        return KEY_ESTIMATE + "|" + networkType;
+    }
+}
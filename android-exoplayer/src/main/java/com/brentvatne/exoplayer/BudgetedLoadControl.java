@@ -0,0 +1,108 @@
+package com.brentvatne.exoplayer;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.LoadControl;
+import com.google.android.exoplayer2.Renderer;
+import com.google.android.exoplayer2.source.TrackGroupArray;
+import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
+import com.google.android.exoplayer2.upstream.Allocator;
+import com.google.android.exoplayer2.upstream.DefaultAllocator;
+
+/**
+ * A {@link LoadControl} that stops loading once its player has used up its share of the budget
+ * handed out by a {@link BufferMemoryCoordinator}, on top of the rules of the wrapped load
+ * control.
+ */
+class BudgetedLoadControl implements LoadControl {
+
+    private final LoadControl loadControl;
+    private final BufferMemoryCoordinator coordinator;
+    private final long minBufferForPlaybackUs;
+    private volatile boolean foreground;
+
+    /**
+     * @param minBufferForPlaybackMs The buffer duration loaded regardless of the budget, so that a
+     *                               player over budget can still start or resume playback.
+     */
+    BudgetedLoadControl(LoadControl loadControl, BufferMemoryCoordinator coordinator,
+                        int minBufferForPlaybackMs) {
+        this.loadControl = loadControl;
+        this.coordinator = coordinator;
+        this.minBufferForPlaybackUs = C.msToUs(minBufferForPlaybackMs);
+        coordinator.register(this);
+    }
+
+    boolean isForeground() {
+        return foreground;
+    }
+
+    void setForeground(boolean foreground) {
+        this.foreground = foreground;
+    }
+
+    /**
+     * Frees the allocations kept around for reuse. The wrapped load control restores the
+     * allocator's target size the next time tracks are selected.
+     */
+    void trimAllocator() {
+        Allocator allocator = getAllocator();
+        if (allocator instanceof DefaultAllocator) {
+            ((DefaultAllocator) allocator).setTargetBufferSize(0);
+        } else {
+            allocator.trim();
+        }
+    }
+
+    @Override
+    public void onPrepared() {
+        coordinator.register(this);
+        loadControl.onPrepared();
+    }
+
+    @Override
+    public void onTracksSelected(Renderer[] renderers, TrackGroupArray trackGroups,
+                                 TrackSelectionArray trackSelections) {
+        loadControl.onTracksSelected(renderers, trackGroups, trackSelections);
+    }
+
+    @Override
+    public void onStopped() {
+        loadControl.onStopped();
+    }
+
+    @Override
+    public void onReleased() {
+        loadControl.onReleased();
+        coordinator.unregister(this);
+    }
+
+    @Override
+    public Allocator getAllocator() {
+        return loadControl.getAllocator();
+    }
+
+    @Override
+    public long getBackBufferDurationUs() {
+        return loadControl.getBackBufferDurationUs();
+    }
+
+    @Override
+    public boolean retainBackBufferFromKeyframe() {
+        return loadControl.retainBackBufferFromKeyframe();
+    }
+
+    @Override
+    public boolean shouldContinueLoading(long bufferedDurationUs, float playbackSpeed) {
+        // Always ask the inner control first, so it keeps its buffering state up to date
+        boolean continueLoading = loadControl.shouldContinueLoading(bufferedDurationUs, playbackSpeed);
+        boolean overBudget = bufferedDurationUs >= minBufferForPlaybackUs
+                && getAllocator().getTotalBytesAllocated() >= coordinator.getBudgetBytes(this);
+        return continueLoading && !overBudget;
+    }
+
+    @Override
+    public boolean shouldStartPlayback(long bufferedDurationUs, float playbackSpeed,
+                                       boolean rebuffering) {
+        return loadControl.shouldStartPlayback(bufferedDurationUs, playbackSpeed, rebuffering);
+    }
+}
@@ -0,0 +1,180 @@
+package com.brentvatne.exoplayer;
+
+import android.os.SystemClock;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.source.TrackGroup;
+import com.google.android.exoplayer2.source.chunk.MediaChunk;
+import com.google.android.exoplayer2.source.chunk.MediaChunkIterator;
+import com.google.android.exoplayer2.trackselection.BaseTrackSelection;
+import com.google.android.exoplayer2.trackselection.FixedTrackSelection;
+import com.google.android.exoplayer2.trackselection.TrackSelection;
+import com.google.android.exoplayer2.upstream.BandwidthMeter;
+
+import java.util.List;
+
+/**
+ * A buffer occupancy based adaptive {@link TrackSelection}, following the BOLA algorithm.
+ *
+ * <p>Renditions are chosen from the current buffer level rather than from the throughput
+ * estimate alone, which keeps the selection steady on networks with bursty throughput. The
+ * throughput estimate is only used to pick the first rendition, while the buffer is still empty,
+ * and to cap switches up to a rendition the network can't currently sustain.
+ */
+public class BufferBasedTrackSelection extends BaseTrackSelection {
+
+    public static final int DEFAULT_MIN_BUFFER_MS = 10000;
+    public static final int DEFAULT_BUFFER_PER_RENDITION_MS = 2000;
+    public static final float DEFAULT_BANDWIDTH_FRACTION = 0.75f;
+
+    public static class Factory implements TrackSelection.Factory {
+
+        private final int minBufferMs;
+        private final int bufferPerRenditionMs;
+        private final float bandwidthFraction;
+
+        public Factory() {
+            this(DEFAULT_MIN_BUFFER_MS, DEFAULT_BUFFER_PER_RENDITION_MS, DEFAULT_BANDWIDTH_FRACTION);
+        }
+
+        /**
+         * @param minBufferMs          The buffer level, in milliseconds, below which the lowest
+         *                             rendition is preferred.
+         * @param bufferPerRenditionMs The additional buffer target, in milliseconds, for every
+         *                             rendition above the lowest one.
+         * @param bandwidthFraction    The fraction of the bandwidth estimate considered available
+         *                             when picking the initial rendition or switching up.
+         */
+        public Factory(int minBufferMs, int bufferPerRenditionMs, float bandwidthFraction) {
+            this.minBufferMs = minBufferMs;
+            this.bufferPerRenditionMs = bufferPerRenditionMs;
+            this.bandwidthFraction = bandwidthFraction;
+        }
+
+        @Override
+        public TrackSelection[] createTrackSelections(Definition[] definitions, BandwidthMeter bandwidthMeter) {
+            TrackSelection[] selections = new TrackSelection[definitions.length];
+            for (int i = 0; i < definitions.length; i++) {
+                Definition definition = definitions[i];
+                if (definition == null) {
+                    continue;
+                }
+                if (definition.tracks.length > 1) {
+                    selections[i] = new BufferBasedTrackSelection(definition.group, definition.tracks,
+                            bandwidthMeter, minBufferMs, bufferPerRenditionMs, bandwidthFraction);
+                } else {
+                    selections[i] = new FixedTrackSelection(definition.group, definition.tracks[0],
+                            definition.reason, definition.data);
+                }
+            }
+            return selections;
+        }
+    }
+
+    private final BandwidthMeter bandwidthMeter;
+    private final float bandwidthFraction;
+    private final double[] utilities;
+    private final double gp;
+    private final double vp;
+
+    private int selectedIndex;
+    private int reason;
+
+    public BufferBasedTrackSelection(TrackGroup group, int[] tracks, BandwidthMeter bandwidthMeter,
+                                     int minBufferMs, int bufferPerRenditionMs, float bandwidthFraction) {
+        super(group, tracks);
+        this.bandwidthMeter = bandwidthMeter;
+        this.bandwidthFraction = bandwidthFraction;
+
+        // Formats are sorted by decreasing bitrate, so the last one is the lowest rendition.
+        // Utilities are shifted so that the lowest rendition has a utility of 1.
+        utilities = new double[length];
+        double lowestBitrate = bitrateOf(length - 1);
+        for (int i = 0; i < length; i++) {
+            utilities[i] = Math.log(bitrateOf(i) / lowestBitrate) + 1;
+        }
+        double minBufferS = minBufferMs / 1000D;
+        double bufferTargetS = minBufferS + (bufferPerRenditionMs / 1000D) * length;
+        // Guard against renditions sharing the same bitrate, which would give a zero gp
+        gp = Math.max((utilities[0] - 1) / (bufferTargetS / minBufferS - 1), 0.001);
+        vp = minBufferS / gp;
+
+        selectedIndex = getThroughputIndex(SystemClock.elapsedRealtime());
+        reason = C.SELECTION_REASON_INITIAL;
+    }
+
+    @Override
+    public int getSelectedIndex() {
+        return selectedIndex;
+    }
+
+    @Override
+    public int getSelectionReason() {
+        return reason;
+    }
+
+    @Override
+    public Object getSelectionData() {
+        return null;
+    }
+
+    @Override
+    public void updateSelectedTrack(long playbackPositionUs, long bufferedDurationUs,
+                                    long availableDurationUs, List<? extends MediaChunk> queue,
+                                    MediaChunkIterator[] mediaChunkIterators) {
+        long nowMs = SystemClock.elapsedRealtime();
+        int currentIndex = selectedIndex;
+        int newIndex;
+        if (queue.isEmpty()) {
+            // Nothing is buffered yet, after a start or a seek. Fall back to the throughput.
+            newIndex = getThroughputIndex(nowMs);
+        } else {
+            newIndex = getBufferIndex(bufferedDurationUs / (double) C.MICROS_PER_SECOND, nowMs);
+            if (newIndex < currentIndex) {
+                // Only switch up as far as the throughput allows, to avoid oscillating.
+                newIndex = Math.max(newIndex, Math.min(currentIndex, getThroughputIndex(nowMs)));
+            }
+        }
+        if (isBlacklisted(currentIndex, nowMs) || newIndex != currentIndex) {
+            selectedIndex = newIndex;
+            reason = C.SELECTION_REASON_ADAPTIVE;
+        }
+    }
+
+    private int getBufferIndex(double bufferLevelS, long nowMs) {
+        int bestIndex = C.INDEX_UNSET;
+        double bestScore = 0;
+        for (int i = 0; i < length; i++) {
+            if (isBlacklisted(i, nowMs)) {
+                continue;
+            }
+            double score = (vp * (utilities[i] + gp) - bufferLevelS) / bitrateOf(i);
+            if (bestIndex == C.INDEX_UNSET || score > bestScore) {
+                bestIndex = i;
+                bestScore = score;
+            }
+        }
+        return bestIndex == C.INDEX_UNSET ? length - 1 : bestIndex;
+    }
+
+    private int getThroughputIndex(long nowMs) {
+        long effectiveBitrate = (long) (bandwidthMeter.getBitrateEstimate() * bandwidthFraction);
+        int lowestIndex = length - 1;
+        for (int i = 0; i < length; i++) {
+            if (isBlacklisted(i, nowMs)) {
+                continue;
+            }
+            if (bitrateOf(i) <= effectiveBitrate) {
+                return i;
+            }
+            lowestIndex = i;
+        }
+        return lowestIndex;
+    }
+
+    private double bitrateOf(int index) {
+        int bitrate = getFormat(index).bitrate;
+        return bitrate == Format.NO_VALUE || bitrate <= 0 ? 1 : bitrate;
+    }
+}
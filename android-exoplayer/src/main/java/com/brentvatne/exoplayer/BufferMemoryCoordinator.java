@@ -0,0 +1,69 @@
+package com.brentvatne.exoplayer;
+
+import android.app.ActivityManager;
+import android.content.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shares a process-wide byte budget for buffered media between every player, so that buffer
+ * memory stays bounded however many players are mounted. Foreground players, the ones playing,
+ * get a larger share of the budget than background players.
+ */
+class BufferMemoryCoordinator {
+
+    // Share of the app's memory class given to media buffers
+    private static final int BUDGET_MEMORY_CLASS_DIVISOR = 4;
+    private static final long MIN_BUDGET_BYTES = 16 * 1024 * 1024;
+    private static final int FOREGROUND_WEIGHT = 4;
+    private static final int BACKGROUND_WEIGHT = 1;
+
+    private static BufferMemoryCoordinator instance;
+
+    private final long totalBudgetBytes;
+    private final List<BudgetedLoadControl> loadControls = new ArrayList<>();
+
+    static synchronized BufferMemoryCoordinator getInstance(Context context) {
+        if (instance == null) {
+            ActivityManager activityManager =
+                    (ActivityManager) context.getApplicationContext().getSystemService(Context.ACTIVITY_SERVICE);
+            long memoryClassBytes = (long) activityManager.getMemoryClass() * 1024 * 1024;
+            instance = new BufferMemoryCoordinator(
+                    Math.max(MIN_BUDGET_BYTES, memoryClassBytes / BUDGET_MEMORY_CLASS_DIVISOR));
+        }
+        return instance;
+    }
+
+    BufferMemoryCoordinator(long totalBudgetBytes) {
+        this.totalBudgetBytes = totalBudgetBytes;
+    }
+
+    synchronized void register(BudgetedLoadControl loadControl) {
+        if (!loadControls.contains(loadControl)) {
+            loadControls.add(loadControl);
+        }
+    }
+
+    synchronized void unregister(BudgetedLoadControl loadControl) {
+        loadControls.remove(loadControl);
+    }
+
+    /**
+     * Returns the number of bytes the given player may currently keep buffered.
+     */
+    synchronized long getBudgetBytes(BudgetedLoadControl loadControl) {
+        int totalWeight = 0;
+        for (BudgetedLoadControl registered : loadControls) {
+            totalWeight += weightOf(registered);
+        }
+        if (totalWeight == 0) {
+            return totalBudgetBytes;
+        }
+        return totalBudgetBytes * weightOf(loadControl) / totalWeight;
+    }
+
+    private static int weightOf(BudgetedLoadControl loadControl) {
+        return loadControl.isForeground() ? FOREGROUND_WEIGHT : BACKGROUND_WEIGHT;
+    }
+}
@@ -0,0 +1,104 @@
+package com.brentvatne.exoplayer;
+
+import android.app.ActivityManager;
+import android.content.Context;
+
+import androidx.core.app.ActivityManagerCompat;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.DefaultLoadControl;
+import com.google.android.exoplayer2.util.Util;
+
+/**
+ * Default buffer durations and allocator segment size, chosen from the memory available to the app
+ * and the current network type. Low-end devices buffer less so they don't thrash, high-end devices
+ * buffer deeper for smoother playback.
+ */
+class BufferProfile {
+
+    // Memory classes, in MB, at or below which a device is low-end, and at or above which it is high-end
+    private static final int LOW_MEMORY_CLASS_MB = 128;
+    private static final int HIGH_MEMORY_CLASS_MB = 256;
+
+    final int minBufferMs;
+    final int maxBufferMs;
+    final int bufferForPlaybackMs;
+    final int bufferForPlaybackAfterRebufferMs;
+    final int segmentSize;
+
+    BufferProfile(int minBufferMs, int maxBufferMs, int bufferForPlaybackMs,
+                  int bufferForPlaybackAfterRebufferMs, int segmentSize) {
+        this.minBufferMs = minBufferMs;
+        this.maxBufferMs = maxBufferMs;
+        this.bufferForPlaybackMs = bufferForPlaybackMs;
+        this.bufferForPlaybackAfterRebufferMs = bufferForPlaybackAfterRebufferMs;
+        this.segmentSize = segmentSize;
+    }
+
+    static BufferProfile forDevice(Context context) {
+        ActivityManager activityManager =
+                (ActivityManager) context.getApplicationContext().getSystemService(Context.ACTIVITY_SERVICE);
+        int memoryClassMb = activityManager.getMemoryClass();
+
+        int minBufferMs;
+        int maxBufferMs;
+        int segmentSize;
+        if (ActivityManagerCompat.isLowRamDevice(activityManager) || memoryClassMb <= LOW_MEMORY_CLASS_MB) {
+            minBufferMs = 10000;
+            maxBufferMs = 20000;
+            segmentSize = C.DEFAULT_BUFFER_SEGMENT_SIZE / 2;
+        } else if (memoryClassMb >= HIGH_MEMORY_CLASS_MB) {
+            minBufferMs = 30000;
+            maxBufferMs = 90000;
+            segmentSize = C.DEFAULT_BUFFER_SEGMENT_SIZE;
+        } else {
+            minBufferMs = DefaultLoadControl.DEFAULT_MIN_BUFFER_MS;
+            maxBufferMs = DefaultLoadControl.DEFAULT_MAX_BUFFER_MS;
+            segmentSize = C.DEFAULT_BUFFER_SEGMENT_SIZE;
+        }
+
+        int bufferForPlaybackMs = DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_MS;
+        int bufferForPlaybackAfterRebufferMs = DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS;
+        switch (Util.getNetworkType(context)) {
+            case C.NETWORK_TYPE_2G:
+            case C.NETWORK_TYPE_3G:
+                // Slow networks build up a larger margin before resuming, so they don't rebuffer again right away
+                bufferForPlaybackMs += 1000;
+                bufferForPlaybackAfterRebufferMs *= 2;
+                break;
+            case C.NETWORK_TYPE_WIFI:
+            case C.NETWORK_TYPE_ETHERNET:
+                bufferForPlaybackMs -= 1000;
+                break;
+            default:
+                break;
+        }
+
+        return new BufferProfile(minBufferMs, maxBufferMs, bufferForPlaybackMs,
+                bufferForPlaybackAfterRebufferMs, segmentSize);
+    }
+
+    /**
+     * Returns this profile with the durations set by the app's buffer config, where those left out
+     * are {@link C#LENGTH_UNSET}. Durations taken from the profile are clamped to the ones set, so
+     * the combination stays valid for {@link DefaultLoadControl}.
+     */
+    BufferProfile withConfig(int minBufferMs, int maxBufferMs, int bufferForPlaybackMs,
+                             int bufferForPlaybackAfterRebufferMs) {
+        if (minBufferMs == C.LENGTH_UNSET) {
+            minBufferMs = maxBufferMs != C.LENGTH_UNSET ? Math.min(this.minBufferMs, maxBufferMs)
+                    : this.minBufferMs;
+        }
+        if (maxBufferMs == C.LENGTH_UNSET) {
+            maxBufferMs = Math.max(this.maxBufferMs, minBufferMs);
+        }
+        if (bufferForPlaybackMs == C.LENGTH_UNSET) {
+            bufferForPlaybackMs = Math.min(this.bufferForPlaybackMs, minBufferMs);
+        }
+        if (bufferForPlaybackAfterRebufferMs == C.LENGTH_UNSET) {
+            bufferForPlaybackAfterRebufferMs = Math.min(this.bufferForPlaybackAfterRebufferMs, minBufferMs);
+        }
+        return new BufferProfile(minBufferMs, maxBufferMs, bufferForPlaybackMs,
+                bufferForPlaybackAfterRebufferMs, segmentSize);
+    }
+}
@@ -0,0 +1,181 @@
+package com.brentvatne.exoplayer;
+
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.facebook.react.modules.network.OkHttpClientProvider;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Tracks the health of an ordered list of equivalent source locations, typically the same stream
+ * served by several CDNs, and decides which one requests should currently go to.
+ *
+ * <p>Every location is identified by its base, the source uri up to the last path segment.
+ * Requests made against any known base are rewritten to the base of the current location, so
+ * switching location doesn't require preparing the player again.
+ */
+class CdnFailoverController {
+
+    private static final String TAG = "CdnFailoverController";
+
+    // Consecutive failures after which the current location is abandoned
+    private static final int FAILURES_TO_SWITCH = 2;
+    // How long an abandoned location is avoided
+    private static final long PENALTY_DURATION_MS = 60000;
+    // Time to first byte above which the current location is considered slow
+    private static final long SLOW_TTFB_MS = 1500;
+    private static final int MIN_TTFB_SAMPLES = 3;
+    private static final long UNKNOWN_TTFB_MS = 1000;
+    private static final double TTFB_EWMA_WEIGHT = 0.3;
+
+    private final Location[] locations;
+    private int currentIndex;
+
+    CdnFailoverController(Uri primaryUri, List<Uri> alternateUris) {
+        locations = new Location[alternateUris.size() + 1];
+        locations[0] = new Location(primaryUri);
+        for (int i = 0; i < alternateUris.size(); i++) {
+            locations[i + 1] = new Location(alternateUris.get(i));
+        }
+    }
+
+    /**
+     * Measures the time to first byte of every location in the background, so that a slow or
+     * unreachable primary location can be avoided before the first segment is requested.
+     */
+    void probe(Map<String, String> requestHeaders) {
+        OkHttpClient client = OkHttpClientProvider.getOkHttpClient();
+        for (int i = 0; i < locations.length; i++) {
+            final int index = i;
+            Request.Builder requestBuilder = new Request.Builder()
+                    .url(locations[i].uri.toString())
+                    .head();
+            if (requestHeaders != null) {
+                for (Map.Entry<String, String> header : requestHeaders.entrySet()) {
+                    requestBuilder.header(header.getKey(), header.getValue());
+                }
+            }
+            final long startTimeMs = SystemClock.elapsedRealtime();
+            client.newCall(requestBuilder.build()).enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    onRequestFailed(index);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    response.close();
+                    if (response.isSuccessful()) {
+                        onRequestSucceeded(index, SystemClock.elapsedRealtime() - startTimeMs);
+                    } else {
+                        onRequestFailed(index);
+                    }
+                }
+            });
+        }
+    }
+
+    synchronized int getCurrentIndex() {
+        return currentIndex;
+    }
+
+    /**
+     * Rewrites a uri on any of the known locations to the given location.
+     */
+    synchronized Uri resolve(Uri uri, int index) {
+        String uriString = uri.toString();
+        for (Location location : locations) {
+            if (uriString.startsWith(location.base)) {
+                return Uri.parse(locations[index].base + uriString.substring(location.base.length()));
+            }
+        }
+        return uri;
+    }
+
+    synchronized void onRequestSucceeded(int index, long ttfbMs) {
+        Location location = locations[index];
+        location.consecutiveFailureCount = 0;
+        location.ttfbEwmaMs = location.ttfbSampleCount == 0 ? ttfbMs
+                : (long) (TTFB_EWMA_WEIGHT * ttfbMs + (1 - TTFB_EWMA_WEIGHT) * location.ttfbEwmaMs);
+        location.ttfbSampleCount++;
+
+        if (index == currentIndex && location.ttfbSampleCount >= MIN_TTFB_SAMPLES
+                && location.ttfbEwmaMs > SLOW_TTFB_MS) {
+            // Only move away from a slow location to one known to be much faster
+            int bestIndex = getBestIndex(SystemClock.elapsedRealtime());
+            Location best = locations[bestIndex];
+            if (bestIndex != currentIndex && best.ttfbSampleCount > 0
+                    && best.ttfbEwmaMs < location.ttfbEwmaMs / 2) {
+                switchTo(bestIndex, "slow time to first byte");
+            }
+        }
+    }
+
+    synchronized void onRequestFailed(int index) {
+        Location location = locations[index];
+        location.consecutiveFailureCount++;
+        if (location.consecutiveFailureCount >= FAILURES_TO_SWITCH) {
+            long nowMs = SystemClock.elapsedRealtime();
+            location.penalizedUntilMs = nowMs + PENALTY_DURATION_MS;
+            location.consecutiveFailureCount = 0;
+            if (index == currentIndex) {
+                switchTo(getBestIndex(nowMs), "repeated failures");
+            }
+        }
+    }
+
+    /**
+     * Returns the healthy location with the lowest time to first byte, preferring the declared
+     * order when unknown, or the next location in order if none is healthy.
+     */
+    private int getBestIndex(long nowMs) {
+        int bestIndex = -1;
+        long bestScore = Long.MAX_VALUE;
+        for (int i = 0; i < locations.length; i++) {
+            Location location = locations[i];
+            if (location.penalizedUntilMs > nowMs) {
+                continue;
+            }
+            long score = (location.ttfbSampleCount > 0 ? location.ttfbEwmaMs : UNKNOWN_TTFB_MS) + i;
+            if (score < bestScore) {
+                bestIndex = i;
+                bestScore = score;
+            }
+        }
+        return bestIndex != -1 ? bestIndex : (currentIndex + 1) % locations.length;
+    }
+
+    private void switchTo(int index, String reason) {
+        if (index == currentIndex) {
+            return;
+        }
+        Log.w(TAG, "Switching from " + locations[currentIndex].base + " to "
+                + locations[index].base + ": " + reason);
+        currentIndex = index;
+    }
+
+    private static class Location {
+        final Uri uri;
+        final String base;
+        int consecutiveFailureCount;
+        long penalizedUntilMs;
+        long ttfbEwmaMs;
+        int ttfbSampleCount;
+
+        Location(Uri uri) {
+            this.uri = uri;
+            String uriString = uri.buildUpon().query(null).fragment(null).build().toString();
+            this.base = uriString.substring(0, uriString.lastIndexOf('/') + 1);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.brentvatne.exoplayer;
+
+import android.net.Uri;
+import android.os.SystemClock;
+
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.HttpDataSource;
+import com.google.android.exoplayer2.upstream.TransferListener;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link DataSource} that sends every request to the location currently chosen by a
+ * {@link CdnFailoverController}, and reports the outcome of each request back to it.
+ */
+class CdnFailoverDataSource implements DataSource {
+
+    static class Factory implements DataSource.Factory {
+
+        private final DataSource.Factory upstreamFactory;
+        private final CdnFailoverController controller;
+
+        Factory(DataSource.Factory upstreamFactory, CdnFailoverController controller) {
+            this.upstreamFactory = upstreamFactory;
+            this.controller = controller;
+        }
+
+        @Override
+        public DataSource createDataSource() {
+            return new CdnFailoverDataSource(upstreamFactory.createDataSource(), controller);
+        }
+    }
+
+    private final DataSource upstream;
+    private final CdnFailoverController controller;
+
+    CdnFailoverDataSource(DataSource upstream, CdnFailoverController controller) {
+        this.upstream = upstream;
+        this.controller = controller;
+    }
+
+    @Override
+    public void addTransferListener(TransferListener transferListener) {
+        upstream.addTransferListener(transferListener);
+    }
+
+    @Override
+    public long open(DataSpec dataSpec) throws IOException {
+        int index = controller.getCurrentIndex();
+        Uri uri = controller.resolve(dataSpec.uri, index);
+        long startTimeMs = SystemClock.elapsedRealtime();
+        try {
+            long length = upstream.open(uri.equals(dataSpec.uri) ? dataSpec : dataSpec.withUri(uri));
+            // Opening returns once the response headers are received
+            controller.onRequestSucceeded(index, SystemClock.elapsedRealtime() - startTimeMs);
+            return length;
+        } catch (IOException e) {
+            if (isLocationFailure(e)) {
+                controller.onRequestFailed(index);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int readLength) throws IOException {
+        return upstream.read(buffer, offset, readLength);
+    }
+
+    @Override
+    public Uri getUri() {
+        return upstream.getUri();
+    }
+
+    @Override
+    public Map<String, List<String>> getResponseHeaders() {
+        return upstream.getResponseHeaders();
+    }
+
+    @Override
+    public void close() throws IOException {
+        upstream.close();
+    }
+
+    /**
+     * Returns whether a failed request says something about the health of its location: a server
+     * error, a timeout or a network error. Client errors, cancelled loads and local errors don't.
+     */
+    private static boolean isLocationFailure(IOException e) {
+        if (e instanceof HttpDataSource.InvalidResponseCodeException) {
+            int responseCode = ((HttpDataSource.InvalidResponseCodeException) e).responseCode;
+            return responseCode >= 500 || responseCode == 408;
+        }
+        if (!(e instanceof HttpDataSource.HttpDataSourceException)) {
+            return false;
+        }
+        // Cancelling a load interrupts its thread, which fails the request with an interrupt
+        Throwable cause = e.getCause();
+        return !(cause instanceof InterruptedIOException) || cause instanceof SocketTimeoutException;
+    }
+}
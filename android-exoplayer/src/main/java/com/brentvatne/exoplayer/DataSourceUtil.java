@@ -1,5 +1,8 @@
 package com.brentvatne.exoplayer;
 
+import android.net.Uri;
+import android.os.SystemClock;
+
 import com.facebook.react.bridge.ReactContext;
 import com.facebook.react.modules.network.CookieJarContainer;
 import com.facebook.react.modules.network.ForwardingCookieHandler;
@@ -11,9 +14,17 @@ import com.google.android.exoplayer2.upstream.DefaultDataSourceFactory;
 import com.google.android.exoplayer2.upstream.HttpDataSource;
 import com.google.android.exoplayer2.util.Util;
 
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.JavaNetCookieJar;
 import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DataSourceUtil {
 
@@ -23,6 +34,11 @@ public class DataSourceUtil {
     private static DataSource.Factory rawDataSourceFactory = null;
     private static DataSource.Factory defaultDataSourceFactory = null;
     private static String userAgent = null;
+    private static final Map<String, Long> prewarmTimes = new ConcurrentHashMap<>();
+
+    // Idle pooled connections are kept alive for 5 minutes by default, so a connection pre-warmed
+    // less than that ago is likely still pooled
+    private static final long PREWARM_INTERVAL_MS = 270000;
 
     public static void setUserAgent(String userAgent) {
         DataSourceUtil.userAgent = userAgent;
@@ -58,6 +74,54 @@ public class DataSourceUtil {
         DataSourceUtil.defaultDataSourceFactory = factory;
     }
 
+    /**
+     * Resolves the host of {@code uri} and opens a connection to it in the background, which is
+     * then kept in the pool of the client used by the media data sources. The handshakes are thus
+     * out of the way when the source is loaded.
+     */
+    public static void prewarmConnection(ReactContext context, Uri uri, Map<String, String> requestHeaders) {
+        String scheme = uri.getScheme();
+        String host = uri.getHost();
+        if (host == null || !("http".equals(scheme) || "https".equals(scheme))) {
+            return;
+        }
+        String origin = scheme + "://" + uri.getEncodedAuthority();
+        long nowMs = SystemClock.elapsedRealtime();
+        Long lastPrewarmTimeMs = prewarmTimes.get(origin);
+        if (lastPrewarmTimeMs != null && nowMs - lastPrewarmTimeMs < PREWARM_INTERVAL_MS) {
+            return;
+        }
+        // Forget the origins whose connection has likely been evicted from the pool by now
+        Iterator<Long> iterator = prewarmTimes.values().iterator();
+        while (iterator.hasNext()) {
+            if (nowMs - iterator.next() >= PREWARM_INTERVAL_MS) {
+                iterator.remove();
+            }
+        }
+        prewarmTimes.put(origin, nowMs);
+
+        Request.Builder requestBuilder = new Request.Builder()
+                .url(uri.toString())
+                .head()
+                .header("User-Agent", getUserAgent(context));
+        if (requestHeaders != null) {
+            for (Map.Entry<String, String> header : requestHeaders.entrySet()) {
+                requestBuilder.header(header.getKey(), header.getValue());
+            }
+        }
+        OkHttpClientProvider.getOkHttpClient().newCall(requestBuilder.build()).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                // Nothing to warm up, the source load will report any error
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+            }
+        });
+    }
+
     private static DataSource.Factory buildRawDataSourceFactory(ReactContext context) {
         return new RawResourceDataSourceFactory(context.getApplicationContext());
     }
@@ -72,7 +136,13 @@ public class DataSourceUtil {
         CookieJarContainer container = (CookieJarContainer) client.cookieJar();
         ForwardingCookieHandler handler = new ForwardingCookieHandler(context);
         container.setCookieJar(new JavaNetCookieJar(handler));
-        OkHttpDataSourceFactory okHttpDataSourceFactory = new OkHttpDataSourceFactory(client, getUserAgent(context), bandwidthMeter);
+        // The derived client shares the connection pool, records the timings of each request and
+        // holds back requests to hosts whose circuit is open
+        OkHttpClient timedClient = client.newBuilder()
+                .eventListenerFactory(RequestTiming.wrapEventListenerFactory(client.eventListenerFactory()))
+                .addInterceptor(HostCircuitBreaker.getInstance())
+                .build();
+        OkHttpDataSourceFactory okHttpDataSourceFactory = new OkHttpDataSourceFactory(timedClient, getUserAgent(context), bandwidthMeter);
 
         if (requestHeaders != null)
             okHttpDataSourceFactory.getDefaultRequestProperties().set(requestHeaders);
@@ -0,0 +1,231 @@
+package com.brentvatne.exoplayer;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.analytics.AnalyticsListener;
+import com.google.android.exoplayer2.decoder.DecoderCounters;
+import com.google.android.exoplayer2.video.VideoFrameMetadataListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decoder counters of a player's video and audio renderers, summed over every time the renderers
+ * were enabled during the current source, along with a histogram of runs of consecutively dropped
+ * video frames and the frames rendered and dropped at each video rendition.
+ *
+ * <p>Attached to the player as an {@link AnalyticsListener} and a
+ * {@link VideoFrameMetadataListener}, so runs of dropped frames are measured on the playback thread
+ * between two rendered frames. Can be read from any thread.
+ */
+class DecoderStats implements AnalyticsListener, VideoFrameMetadataListener {
+
+    private static final ConcurrentHashMap<Integer, DecoderStats> registry = new ConcurrentHashMap<>();
+
+    /**
+     * Longest run of dropped frames counted by each histogram bucket. Longer runs are counted by an
+     * extra, last bucket.
+     */
+    static final int[] DROPPED_RUN_BUCKETS = {1, 2, 4, 8, 16, 32};
+
+    /**
+     * Frames rendered and dropped while a video rendition was playing.
+     */
+    static class Rendition {
+        final int bitrate;
+        final int width;
+        final int height;
+        int renderedFrames;
+        int droppedFrames;
+
+        Rendition(int bitrate, int width, int height) {
+            this.bitrate = bitrate;
+            this.width = width;
+            this.height = height;
+        }
+
+        boolean matches(Format format) {
+            return bitrate == format.bitrate && width == format.width && height == format.height;
+        }
+    }
+
+    static class Values {
+        final DecoderCounters video;
+        final DecoderCounters audio;
+        final int[] droppedRuns;
+        final long averageFrameProcessingOffsetUs;
+        final List<Rendition> renditions;
+
+        Values(DecoderCounters video, DecoderCounters audio, int[] droppedRuns,
+               long averageFrameProcessingOffsetUs, List<Rendition> renditions) {
+            this.video = video;
+            this.audio = audio;
+            this.droppedRuns = droppedRuns;
+            this.averageFrameProcessingOffsetUs = averageFrameProcessingOffsetUs;
+            this.renditions = renditions;
+        }
+    }
+
+    private final DecoderCounters videoTotals = new DecoderCounters();
+    private final DecoderCounters audioTotals = new DecoderCounters();
+    private final int[] droppedRuns = new int[DROPPED_RUN_BUCKETS.length + 1];
+    private final List<Rendition> renditions = new ArrayList<>();
+
+    private DecoderCounters videoCounters;
+    private DecoderCounters audioCounters;
+    private DecoderCounters frameCounters;
+    private int lastDroppedBufferCount;
+    private long frameProcessingOffsetSumUs;
+    private int frameCount;
+    private Format lastFormat;
+    private Rendition currentRendition;
+
+    static void register(int viewId, DecoderStats stats) {
+        registry.put(viewId, stats);
+    }
+
+    static void unregister(int viewId, DecoderStats stats) {
+        registry.remove(viewId, stats);
+    }
+
+    /**
+     * Returns the stats of the view with the given id, or null if there are none.
+     */
+    static DecoderStats get(int viewId) {
+        return registry.get(viewId);
+    }
+
+    /**
+     * Starts over for a new source. Counters of the decoders still enabled for the previous source
+     * are left out.
+     */
+    synchronized void reset() {
+        clear(videoTotals);
+        clear(audioTotals);
+        videoCounters = null;
+        audioCounters = null;
+        frameCounters = null;
+        for (int i = 0; i < droppedRuns.length; i++) {
+            droppedRuns[i] = 0;
+        }
+        frameProcessingOffsetSumUs = 0;
+        frameCount = 0;
+        renditions.clear();
+        lastFormat = null;
+        currentRendition = null;
+    }
+
+    /**
+     * Adds the counters of the enabled decoders to the totals, as the player is being released.
+     */
+    synchronized void detach() {
+        if (videoCounters != null) {
+            videoTotals.merge(videoCounters);
+            videoCounters = null;
+        }
+        if (audioCounters != null) {
+            audioTotals.merge(audioCounters);
+            audioCounters = null;
+        }
+    }
+
+    @Override
+    public synchronized void onDecoderEnabled(EventTime eventTime, int trackType, DecoderCounters decoderCounters) {
+        if (trackType == C.TRACK_TYPE_VIDEO) {
+            videoCounters = decoderCounters;
+        } else if (trackType == C.TRACK_TYPE_AUDIO) {
+            audioCounters = decoderCounters;
+        }
+    }
+
+    @Override
+    public synchronized void onDecoderDisabled(EventTime eventTime, int trackType, DecoderCounters decoderCounters) {
+        // Counters that aren't current were already added to the totals, or belong to a previous source
+        if (decoderCounters == videoCounters) {
+            videoTotals.merge(decoderCounters);
+            videoCounters = null;
+        } else if (decoderCounters == audioCounters) {
+            audioTotals.merge(decoderCounters);
+            audioCounters = null;
+        }
+    }
+
+    @Override
+    public synchronized void onVideoFrameAboutToBeRendered(long presentationTimeUs, long releaseTimeNs, Format format) {
+        if (videoCounters == null) {
+            return;
+        }
+        if (frameCounters != videoCounters) {
+            frameCounters = videoCounters;
+            lastDroppedBufferCount = frameCounters.droppedBufferCount;
+        }
+        // The counters are updated on this thread, so they are up to date here
+        int run = frameCounters.droppedBufferCount - lastDroppedBufferCount;
+        lastDroppedBufferCount = frameCounters.droppedBufferCount;
+        if (run > 0) {
+            int bucket = 0;
+            while (bucket < DROPPED_RUN_BUCKETS.length && run > DROPPED_RUN_BUCKETS[bucket]) {
+                bucket++;
+            }
+            droppedRuns[bucket]++;
+        }
+
+        // How early the frame is ready before it's due on screen
+        frameProcessingOffsetSumUs += (releaseTimeNs - System.nanoTime()) / 1000;
+        frameCount++;
+
+        if (format != lastFormat) {
+            lastFormat = format;
+            currentRendition = null;
+            for (Rendition rendition : renditions) {
+                if (rendition.matches(format)) {
+                    currentRendition = rendition;
+                    break;
+                }
+            }
+            if (currentRendition == null) {
+                currentRendition = new Rendition(format.bitrate, format.width, format.height);
+                renditions.add(currentRendition);
+            }
+        }
+        currentRendition.renderedFrames++;
+        currentRendition.droppedFrames += run;
+    }
+
+    synchronized Values read() {
+        DecoderCounters video = new DecoderCounters();
+        video.merge(videoTotals);
+        if (videoCounters != null) {
+            videoCounters.ensureUpdated();
+            video.merge(videoCounters);
+        }
+        DecoderCounters audio = new DecoderCounters();
+        audio.merge(audioTotals);
+        if (audioCounters != null) {
+            audioCounters.ensureUpdated();
+            audio.merge(audioCounters);
+        }
+        List<Rendition> renditionsCopy = new ArrayList<>(renditions.size());
+        for (Rendition rendition : renditions) {
+            Rendition copy = new Rendition(rendition.bitrate, rendition.width, rendition.height);
+            copy.renderedFrames = rendition.renderedFrames;
+            copy.droppedFrames = rendition.droppedFrames;
+            renditionsCopy.add(copy);
+        }
+        return new Values(video, audio, droppedRuns.clone(),
+                frameCount > 0 ? frameProcessingOffsetSumUs / frameCount : 0, renditionsCopy);
+    }
+
+    private static void clear(DecoderCounters counters) {
+        counters.decoderInitCount = 0;
+        counters.decoderReleaseCount = 0;
+        counters.inputBufferCount = 0;
+        counters.skippedInputBufferCount = 0;
+        counters.renderedOutputBufferCount = 0;
+        counters.skippedOutputBufferCount = 0;
+        counters.droppedBufferCount = 0;
+        counters.maxConsecutiveDroppedBufferCount = 0;
+        counters.droppedToKeyframeCount = 0;
+    }
+}
@@ -1,26 +1,60 @@
 package com.brentvatne.exoplayer;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 
+import com.google.android.exoplayer2.upstream.BandwidthMeter;
 import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
-import com.google.android.exoplayer2.upstream.DefaultLoadErrorHandlingPolicy;
 import com.google.android.exoplayer2.upstream.LoadErrorHandlingPolicy;
+import com.google.android.exoplayer2.util.Util;
 
-public class DefaultReactExoplayerConfig implements ReactExoplayerConfig {
+public class DefaultReactExoplayerConfig implements ReactExoplayerConfig, BandwidthMeter.EventListener {
 
+    private static final long PERSIST_INTERVAL_MS = 5000;
+
+    private final Context context;
+    private final BandwidthEstimateStore estimateStore;
     private final DefaultBandwidthMeter bandwidthMeter;
+    private long lastPersistTimeMs;
 
     public DefaultReactExoplayerConfig(Context context) {
-        this.bandwidthMeter = new DefaultBandwidthMeter.Builder(context).build();
+        this.context = context.getApplicationContext();
+        this.estimateStore = new BandwidthEstimateStore(context);
+
+        // Seed the meter with the estimates persisted by a previous session. The meter only takes
+        // initial estimates when it is built, so this is done once per process.
+        DefaultBandwidthMeter.Builder builder = new DefaultBandwidthMeter.Builder(context);
+        for (int networkType : BandwidthEstimateStore.NETWORK_TYPES) {
+            long estimate = estimateStore.getEstimate(networkType);
+            if (estimate > 0) {
+                builder.setInitialBitrateEstimate(networkType, estimate);
+            }
+        }
+        this.bandwidthMeter = builder.build();
+        this.bandwidthMeter.addEventListener(new Handler(Looper.getMainLooper()), this);
     }
 
     @Override
     public LoadErrorHandlingPolicy buildLoadErrorHandlingPolicy(int minLoadRetryCount) {
-        return new DefaultLoadErrorHandlingPolicy(minLoadRetryCount);
+        return new AdaptiveLoadErrorHandlingPolicy(context, minLoadRetryCount);
     }
 
     @Override
     public DefaultBandwidthMeter getBandwidthMeter() {
         return bandwidthMeter;
     }
+
+    // BandwidthMeter.EventListener implementation
+
+    @Override
+    public void onBandwidthSample(int elapsedMs, long bytes, long bitrate) {
+        long nowMs = SystemClock.elapsedRealtime();
+        if (nowMs - lastPersistTimeMs < PERSIST_INTERVAL_MS) {
+            return;
+        }
+        lastPersistTimeMs = nowMs;
+        estimateStore.putEstimate(Util.getNetworkType(context), bitrate);
+    }
 }
@@ -0,0 +1,137 @@
+package com.brentvatne.exoplayer;
+
+import androidx.annotation.IntDef;
+
+import com.google.android.exoplayer2.ExoPlaybackException;
+import com.google.android.exoplayer2.source.BehindLiveWindowException;
+import com.google.android.exoplayer2.upstream.HttpDataSource;
+
+import java.lang.annotation.Retention;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+/**
+ * Decides how to recover from playback errors. Errors are sorted into classes, and recovery
+ * escalates from the cheapest action on the existing source to rebuilding the source, before
+ * finally giving up and reporting the error.
+ */
+class ErrorRecovery {
+
+    /**
+     * The playback position fell out of the live window.
+     */
+    static final int ERROR_CLASS_BEHIND_LIVE_WINDOW = 0;
+    /**
+     * A network error that is likely to go away on its own, such as a timeout or a server error.
+     */
+    static final int ERROR_CLASS_TRANSIENT_NETWORK = 1;
+    /**
+     * An error that retrying won't fix, such as a client error or an unsupported format.
+     */
+    static final int ERROR_CLASS_FATAL = 2;
+
+    @Retention(SOURCE)
+    @IntDef({
+            ERROR_CLASS_BEHIND_LIVE_WINDOW,
+            ERROR_CLASS_TRANSIENT_NETWORK,
+            ERROR_CLASS_FATAL
+    })
+    @interface ErrorClass {
+    }
+
+    /**
+     * Re-prepare the existing source at the live edge.
+     */
+    static final int ACTION_SEEK_TO_LIVE_EDGE = 0;
+    /**
+     * Re-prepare the existing source at the current position, after {@link #getRetryDelayMs()}.
+     */
+    static final int ACTION_RETRY_IN_PLACE = 1;
+    /**
+     * Build a new source and prepare the player with it.
+     */
+    static final int ACTION_REBUILD_SOURCE = 2;
+    /**
+     * Give up and report the error.
+     */
+    static final int ACTION_FAIL = 3;
+
+    @Retention(SOURCE)
+    @IntDef({
+            ACTION_SEEK_TO_LIVE_EDGE,
+            ACTION_RETRY_IN_PLACE,
+            ACTION_REBUILD_SOURCE,
+            ACTION_FAIL
+    })
+    @interface Action {
+    }
+
+    private static final int MAX_IN_PLACE_RETRY_COUNT = 3;
+    private static final int MAX_SOURCE_REBUILD_COUNT = 1;
+    private static final long BASE_RETRY_DELAY_MS = 1000;
+
+    private int inPlaceRetryCount;
+    private int sourceRebuildCount;
+
+    static @ErrorClass int classify(ExoPlaybackException e) {
+        if (e.type != ExoPlaybackException.TYPE_SOURCE) {
+            return ERROR_CLASS_FATAL;
+        }
+        Throwable cause = e.getSourceException();
+        while (cause != null) {
+            if (cause instanceof BehindLiveWindowException) {
+                return ERROR_CLASS_BEHIND_LIVE_WINDOW;
+            }
+            if (cause instanceof HttpDataSource.InvalidResponseCodeException) {
+                int responseCode = ((HttpDataSource.InvalidResponseCodeException) cause).responseCode;
+                return responseCode >= 500 || responseCode == 408 || responseCode == 429
+                        ? ERROR_CLASS_TRANSIENT_NETWORK : ERROR_CLASS_FATAL;
+            }
+            if (cause instanceof HttpDataSource.HttpDataSourceException
+                    || cause instanceof SocketTimeoutException
+                    || cause instanceof SocketException
+                    || cause instanceof UnknownHostException) {
+                return ERROR_CLASS_TRANSIENT_NETWORK;
+            }
+            cause = cause.getCause();
+        }
+        return ERROR_CLASS_FATAL;
+    }
+
+    /**
+     * Returns the next recovery action for an error of the given class, and records the attempt.
+     */
+    @Action int nextAction(@ErrorClass int errorClass) {
+        if (errorClass == ERROR_CLASS_FATAL) {
+            return ACTION_FAIL;
+        }
+        if (inPlaceRetryCount < MAX_IN_PLACE_RETRY_COUNT) {
+            inPlaceRetryCount++;
+            return errorClass == ERROR_CLASS_BEHIND_LIVE_WINDOW
+                    ? ACTION_SEEK_TO_LIVE_EDGE : ACTION_RETRY_IN_PLACE;
+        }
+        if (sourceRebuildCount < MAX_SOURCE_REBUILD_COUNT) {
+            sourceRebuildCount++;
+            return ACTION_REBUILD_SOURCE;
+        }
+        return ACTION_FAIL;
+    }
+
+    /**
+     * Returns the delay before the last in place retry, doubling with every attempt.
+     */
+    long getRetryDelayMs() {
+        return BASE_RETRY_DELAY_MS << Math.max(0, inPlaceRetryCount - 1);
+    }
+
+    /**
+     * Called once playback is ready again, or a new source is set, to reset the attempt counts.
+     */
+    void reset() {
+        inPlaceRetryCount = 0;
+        sourceRebuildCount = 0;
+    }
+}
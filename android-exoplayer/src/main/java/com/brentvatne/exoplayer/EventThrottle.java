@@ -0,0 +1,148 @@
+package com.brentvatne.exoplayer;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+import androidx.annotation.IntDef;
+
+import com.google.android.exoplayer2.C;
+
+import java.lang.annotation.Retention;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+/**
+ * Limits how often events of a given type are emitted, so that events JS would drop anyway are
+ * rejected before their payload is built. Must only be used from the main thread.
+ */
+class EventThrottle {
+
+    /**
+     * Emit the event now.
+     */
+    static final int EMIT = 0;
+    /**
+     * Drop the event.
+     */
+    static final int DROP = 1;
+    /**
+     * Hand the event to {@link #defer(String, Runnable)}, to be emitted at the end of the interval
+     * unless a later event supersedes it.
+     */
+    static final int DEFER = 2;
+
+    @Retention(SOURCE)
+    @IntDef({EMIT, DROP, DEFER})
+    @interface Decision {
+    }
+
+    static class Policy {
+        final long minIntervalMs;
+        final boolean trailing;
+        final double changeThreshold;
+
+        private long lastEmitTimeMs = C.TIME_UNSET;
+        private double lastValue = Double.NaN;
+        private double pendingValue;
+        private Runnable pendingEmission;
+        private Runnable flush;
+
+        /**
+         * @param minIntervalMs   The minimum time between two events.
+         * @param trailing        Whether the last event of an interval is emitted at its end, rather
+         *                        than dropping every event after the first one.
+         * @param changeThreshold The minimum change of the event's value since the last event.
+         */
+        Policy(long minIntervalMs, boolean trailing, double changeThreshold) {
+            this.minIntervalMs = minIntervalMs;
+            this.trailing = trailing;
+            this.changeThreshold = changeThreshold;
+        }
+    }
+
+    private final Handler handler = new Handler();
+    private final Map<String, Policy> policies = new HashMap<>();
+
+    void setPolicies(Map<String, Policy> newPolicies) {
+        reset();
+        policies.clear();
+        policies.putAll(newPolicies);
+    }
+
+    /**
+     * Drops the pending emissions and starts every policy over, so that no event deferred before
+     * a source change or release is emitted after it.
+     */
+    void reset() {
+        for (Policy policy : policies.values()) {
+            if (policy.flush != null) {
+                handler.removeCallbacks(policy.flush);
+            }
+            policy.pendingEmission = null;
+            policy.lastEmitTimeMs = C.TIME_UNSET;
+            policy.lastValue = Double.NaN;
+        }
+    }
+
+    /**
+     * Decides what to do with an event of the given type.
+     *
+     * @param value The value compared against the policy's change threshold, or {@link Double#NaN}
+     *              if the event has none.
+     */
+    @Decision
+    int check(String type, double value) {
+        Policy policy = policies.get(type);
+        if (policy == null) {
+            return EMIT;
+        }
+        if (!Double.isNaN(value) && !Double.isNaN(policy.lastValue)
+                && Math.abs(value - policy.lastValue) < policy.changeThreshold) {
+            return DROP;
+        }
+        long nowMs = SystemClock.uptimeMillis();
+        if (policy.pendingEmission == null
+                && (policy.lastEmitTimeMs == C.TIME_UNSET || nowMs - policy.lastEmitTimeMs >= policy.minIntervalMs)) {
+            policy.lastEmitTimeMs = nowMs;
+            policy.lastValue = value;
+            return EMIT;
+        }
+        if (policy.trailing) {
+            policy.pendingValue = value;
+            return DEFER;
+        }
+        return DROP;
+    }
+
+    /**
+     * Schedules the emission of an event deferred by {@link #check(String, double)}, replacing any
+     * emission already pending for the type.
+     */
+    void defer(String type, Runnable emission) {
+        final Policy policy = policies.get(type);
+        if (policy == null) {
+            emission.run();
+            return;
+        }
+        boolean scheduled = policy.pendingEmission != null;
+        policy.pendingEmission = emission;
+        if (scheduled) {
+            return;
+        }
+        if (policy.flush == null) {
+            policy.flush = new Runnable() {
+                @Override
+                public void run() {
+                    Runnable pendingEmission = policy.pendingEmission;
+                    policy.pendingEmission = null;
+                    policy.lastEmitTimeMs = SystemClock.uptimeMillis();
+                    policy.lastValue = policy.pendingValue;
+                    pendingEmission.run();
+                }
+            };
+        }
+        handler.postAtTime(policy.flush, policy.lastEmitTimeMs + policy.minIntervalMs);
+    }
+}
@@ -86,25 +86,35 @@ public final class ExoPlayerView extends FrameLayout {
     }
 
     private void setVideoView() {
-        if (surfaceView instanceof TextureView) {
-            player.setVideoTextureView((TextureView) surfaceView);
-        } else if (surfaceView instanceof SurfaceView) {
-            player.setVideoSurfaceView((SurfaceView) surfaceView);
+        boolean traced = PlayerTrace.begin("RNV.setVideoView");
+        try {
+            if (surfaceView instanceof TextureView) {
+                player.setVideoTextureView((TextureView) surfaceView);
+            } else if (surfaceView instanceof SurfaceView) {
+                player.setVideoSurfaceView((SurfaceView) surfaceView);
+            }
+        } finally {
+            PlayerTrace.end(traced);
         }
     }
 
     private void updateSurfaceView() {
-        View view = useTextureView ? new TextureView(context) : new SurfaceView(context);
-        view.setLayoutParams(layoutParams);
-
-        surfaceView = view;
-        if (layout.getChildAt(0) != null) {
-            layout.removeViewAt(0);
-        }
-        layout.addView(surfaceView, 0, layoutParams);
+        boolean traced = PlayerTrace.begin("RNV.updateSurfaceView");
+        try {
+            View view = useTextureView ? new TextureView(context) : new SurfaceView(context);
+            view.setLayoutParams(layoutParams);
+
+            surfaceView = view;
+            if (layout.getChildAt(0) != null) {
+                layout.removeViewAt(0);
+            }
+            layout.addView(surfaceView, 0, layoutParams);
 
-        if (this.player != null) {
-            setVideoView();
+            if (this.player != null) {
+                setVideoView();
+            }
+        } finally {
+            PlayerTrace.end(traced);
         }
     }
 
@@ -0,0 +1,125 @@
+package com.brentvatne.exoplayer;
+
+import android.os.SystemClock;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Per-host circuit breakers shared by every player. A host failing repeatedly has its circuit
+ * opened for a cooldown period, during which every request to it, from any player, fails right
+ * away with a {@link CircuitOpenException} instead of adding to the load on the host.
+ *
+ * <p>Failures are recorded by {@link AdaptiveLoadErrorHandlingPolicy}, and requests are gated as an
+ * interceptor of the OkHttp client of {@link DataSourceUtil}.
+ */
+class HostCircuitBreaker implements Interceptor {
+
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final long FAILURE_WINDOW_MS = 30000;
+    private static final long COOLDOWN_MS = 10000;
+
+    private static final HostCircuitBreaker instance = new HostCircuitBreaker();
+
+    /**
+     * Thrown for requests to a host whose circuit is open.
+     */
+    static class CircuitOpenException extends IOException {
+
+        final String host;
+
+        CircuitOpenException(String host) {
+            super("Circuit open for " + host);
+            this.host = host;
+        }
+    }
+
+    private final ConcurrentHashMap<String, HostState> hostStates = new ConcurrentHashMap<>();
+
+    static HostCircuitBreaker getInstance() {
+        return instance;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        String host = chain.request().url().host();
+        if (getOpenDurationMs(host, SystemClock.elapsedRealtime()) > 0) {
+            throw new CircuitOpenException(host);
+        }
+        return chain.proceed(chain.request());
+    }
+
+    /**
+     * Records a failure against the host, and returns how long its circuit stays open, or 0 if it
+     * is closed.
+     */
+    long recordFailure(String host, long nowMs) {
+        prune(nowMs);
+        while (true) {
+            HostState state = hostStates.get(host);
+            if (state == null) {
+                HostState newState = new HostState();
+                state = hostStates.putIfAbsent(host, newState);
+                if (state == null) {
+                    state = newState;
+                }
+            }
+            synchronized (state) {
+                if (state.pruned) {
+                    // Pruned meanwhile, record the failure in a new state
+                    continue;
+                }
+                if (nowMs - state.lastFailureTimeMs > FAILURE_WINDOW_MS) {
+                    state.consecutiveFailureCount = 0;
+                }
+                state.consecutiveFailureCount++;
+                state.lastFailureTimeMs = nowMs;
+                if (state.openUntilMs <= nowMs && state.consecutiveFailureCount >= FAILURE_THRESHOLD) {
+                    state.openUntilMs = nowMs + COOLDOWN_MS;
+                    state.consecutiveFailureCount = 0;
+                }
+                return Math.max(0, state.openUntilMs - nowMs);
+            }
+        }
+    }
+
+    /**
+     * Returns how long the circuit of the host stays open, or 0 if it is closed.
+     */
+    long getOpenDurationMs(String host, long nowMs) {
+        HostState state = hostStates.get(host);
+        if (state == null) {
+            return 0;
+        }
+        synchronized (state) {
+            return Math.max(0, state.openUntilMs - nowMs);
+        }
+    }
+
+    /**
+     * Forgets the hosts whose circuit is closed and whose last failure is out of the window.
+     */
+    private void prune(long nowMs) {
+        Iterator<HostState> iterator = hostStates.values().iterator();
+        while (iterator.hasNext()) {
+            HostState state = iterator.next();
+            synchronized (state) {
+                if (state.openUntilMs <= nowMs && nowMs - state.lastFailureTimeMs > FAILURE_WINDOW_MS) {
+                    state.pruned = true;
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private static class HostState {
+        int consecutiveFailureCount;
+        long lastFailureTimeMs;
+        long openUntilMs;
+        boolean pruned;
+    }
+}
@@ -0,0 +1,108 @@
+package com.brentvatne.exoplayer;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.Timeline;
+
+/**
+ * Keeps live playback close to a target offset from the live edge by adjusting the playback
+ * speed slightly, instead of seeking.
+ */
+class LiveLatencyController {
+
+    static final float DEFAULT_MIN_PLAYBACK_SPEED = 0.97f;
+    static final float DEFAULT_MAX_PLAYBACK_SPEED = 1.03f;
+
+    // Speed change applied per second of difference between the live offset and its target
+    private static final float PROPORTIONAL_CONTROL_FACTOR = 0.1f;
+    // Offsets this close to the target are considered on target, to avoid constant adjustments.
+    // Once adjusting, the speed is only reset within half of it, so it doesn't flip at the edge.
+    private static final long TARGET_TOLERANCE_MS = 200;
+    // Speeds are adjusted in steps, as every change of the playback parameters makes the audio
+    // sink drain and reconfigure its speed processing
+    private static final float SPEED_STEP = 0.005f;
+
+    private final Timeline.Window window = new Timeline.Window();
+
+    private long targetOffsetMs = C.TIME_UNSET;
+    private float minPlaybackSpeed = DEFAULT_MIN_PLAYBACK_SPEED;
+    private float maxPlaybackSpeed = DEFAULT_MAX_PLAYBACK_SPEED;
+    private long liveOffsetMs = C.TIME_UNSET;
+    private float speedAdjustment = 1f;
+
+    void setConfig(long targetOffsetMs, float minPlaybackSpeed, float maxPlaybackSpeed) {
+        this.targetOffsetMs = targetOffsetMs > 0 ? targetOffsetMs : C.TIME_UNSET;
+        this.minPlaybackSpeed = Math.min(minPlaybackSpeed, 1f);
+        this.maxPlaybackSpeed = Math.max(maxPlaybackSpeed, 1f);
+        if (!isEnabled()) {
+            // The live offset is only measured while enabled
+            liveOffsetMs = C.TIME_UNSET;
+            speedAdjustment = 1f;
+        }
+    }
+
+    boolean isEnabled() {
+        return targetOffsetMs != C.TIME_UNSET;
+    }
+
+    long getTargetOffsetMs() {
+        return targetOffsetMs;
+    }
+
+    /**
+     * Measures the distance between the playback position and the live edge of the current
+     * window.
+     *
+     * @return The live offset in milliseconds, or {@link C#TIME_UNSET} if the current window
+     * isn't live.
+     */
+    long updateLiveOffset(Player player) {
+        liveOffsetMs = C.TIME_UNSET;
+        Timeline timeline = player.getCurrentTimeline();
+        if (!timeline.isEmpty()) {
+            timeline.getWindow(player.getCurrentWindowIndex(), window);
+            long windowDurationMs = window.getDurationMs();
+            if (window.isDynamic && windowDurationMs != C.TIME_UNSET) {
+                liveOffsetMs = Math.max(0, windowDurationMs - player.getCurrentPosition());
+            }
+        }
+        return liveOffsetMs;
+    }
+
+    long getLiveOffsetMs() {
+        return liveOffsetMs;
+    }
+
+    /**
+     * @return How far the live offset is behind its target in milliseconds, negative when ahead
+     * of it, or {@link C#TIME_UNSET} if unknown.
+     */
+    long getDriftMs() {
+        if (!isEnabled() || liveOffsetMs == C.TIME_UNSET) {
+            return C.TIME_UNSET;
+        }
+        return liveOffsetMs - targetOffsetMs;
+    }
+
+    /**
+     * Returns the speed to play at to converge on the target live offset. The speed only changes
+     * by whole {@link #SPEED_STEP}s, so it stays the same from one call to the next unless the
+     * drift moved enough.
+     *
+     * @param baseSpeed The speed requested by the application.
+     */
+    float getAdjustedSpeed(float baseSpeed) {
+        long driftMs = getDriftMs();
+        long toleranceMs = speedAdjustment == 1f ? TARGET_TOLERANCE_MS : TARGET_TOLERANCE_MS / 2;
+        if (driftMs == C.TIME_UNSET || Math.abs(driftMs) <= toleranceMs) {
+            speedAdjustment = 1f;
+        } else {
+            float adjustment = 1f + PROPORTIONAL_CONTROL_FACTOR * driftMs / 1000f;
+            if (Math.abs(adjustment - speedAdjustment) >= SPEED_STEP) {
+                adjustment = Math.round(adjustment / SPEED_STEP) * SPEED_STEP;
+                speedAdjustment = Math.max(minPlaybackSpeed, Math.min(maxPlaybackSpeed, adjustment));
+            }
+        }
+        return baseSpeed * speedAdjustment;
+    }
+}
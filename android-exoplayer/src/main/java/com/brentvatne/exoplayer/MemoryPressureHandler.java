@@ -0,0 +1,105 @@
+package com.brentvatne.exoplayer;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+
+import androidx.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+/**
+ * Turns the system's memory pressure callbacks into stages of memory shedding, and hands them to
+ * every registered player. Callbacks are received on the main thread.
+ */
+class MemoryPressureHandler implements ComponentCallbacks2 {
+
+    /**
+     * Free the memory kept around for reuse, without affecting playback.
+     */
+    static final int STAGE_TRIM = 1;
+    /**
+     * Also release the players paused by the app.
+     */
+    static final int STAGE_RELEASE_PAUSED = 2;
+    /**
+     * Also release every player that isn't currently playing.
+     */
+    static final int STAGE_RELEASE_IDLE = 3;
+
+    @Retention(SOURCE)
+    @IntDef({
+            STAGE_TRIM,
+            STAGE_RELEASE_PAUSED,
+            STAGE_RELEASE_IDLE
+    })
+    @interface Stage {
+    }
+
+    interface Listener {
+        void onMemoryPressure(int level, @Stage int stage);
+    }
+
+    private static MemoryPressureHandler instance;
+
+    private final List<Listener> listeners = new ArrayList<>();
+
+    static synchronized MemoryPressureHandler getInstance(Context context) {
+        if (instance == null) {
+            instance = new MemoryPressureHandler();
+            context.getApplicationContext().registerComponentCallbacks(instance);
+        }
+        return instance;
+    }
+
+    void addListener(Listener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        switch (level) {
+            case TRIM_MEMORY_RUNNING_MODERATE:
+            case TRIM_MEMORY_RUNNING_LOW:
+            case TRIM_MEMORY_BACKGROUND:
+                dispatch(level, STAGE_TRIM);
+                break;
+            case TRIM_MEMORY_RUNNING_CRITICAL:
+            case TRIM_MEMORY_MODERATE:
+                dispatch(level, STAGE_RELEASE_PAUSED);
+                break;
+            case TRIM_MEMORY_COMPLETE:
+                dispatch(level, STAGE_RELEASE_IDLE);
+                break;
+            default:
+                // TRIM_MEMORY_UI_HIDDEN only means the app went to the background
+                break;
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        dispatch(TRIM_MEMORY_COMPLETE, STAGE_RELEASE_IDLE);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+
+    private void dispatch(int level, @Stage int stage) {
+        // Listeners may remove themselves while releasing their player
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onMemoryPressure(level, stage);
+        }
+    }
+}
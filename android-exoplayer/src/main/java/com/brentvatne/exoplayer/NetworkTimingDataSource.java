@@ -0,0 +1,141 @@
+package com.brentvatne.exoplayer;
+
+import android.net.Uri;
+import android.os.Handler;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.TransferListener;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link DataSource} that times every HTTP request it makes, adds the timings to
+ * {@link NetworkTimingStats} and reports each of them to a listener. Other requests, such as
+ * files and assets, are passed through.
+ */
+class NetworkTimingDataSource implements DataSource {
+
+    interface Listener {
+        /**
+         * Returns whether the listener has a use for completed requests. Called on the loading
+         * thread, so that requests aren't posted to the listener for nothing.
+         */
+        boolean isListeningForRequests();
+
+        void onRequestCompleted(RequestTiming timing);
+    }
+
+    static class Factory implements DataSource.Factory {
+
+        private final DataSource.Factory upstreamFactory;
+        private final Handler listenerHandler;
+        private final Listener listener;
+
+        /**
+         * @param listener Notified on the thread of {@code listenerHandler} of every completed
+         *                 request.
+         */
+        Factory(DataSource.Factory upstreamFactory, Handler listenerHandler, Listener listener) {
+            this.upstreamFactory = upstreamFactory;
+            this.listenerHandler = listenerHandler;
+            this.listener = listener;
+        }
+
+        @Override
+        public DataSource createDataSource() {
+            return new NetworkTimingDataSource(upstreamFactory.createDataSource(), listenerHandler, listener);
+        }
+    }
+
+    private final DataSource upstream;
+    private final Handler listenerHandler;
+    private final Listener listener;
+
+    @Nullable private RequestTiming timing;
+
+    NetworkTimingDataSource(DataSource upstream, Handler listenerHandler, Listener listener) {
+        this.upstream = upstream;
+        this.listenerHandler = listenerHandler;
+        this.listener = listener;
+    }
+
+    @Override
+    public void addTransferListener(TransferListener transferListener) {
+        upstream.addTransferListener(transferListener);
+    }
+
+    @Override
+    public long open(DataSpec dataSpec) throws IOException {
+        String scheme = dataSpec.uri.getScheme();
+        if (!"http".equals(scheme) && !"https".equals(scheme)) {
+            return upstream.open(dataSpec);
+        }
+        RequestTiming timing = new RequestTiming(dataSpec.uri);
+        this.timing = timing;
+        timing.beginOpen();
+        boolean opened = false;
+        try {
+            long length = upstream.open(dataSpec);
+            opened = true;
+            return length;
+        } finally {
+            // A failed request is completed on close, which is called even when the open fails
+            timing.endOpen(!opened);
+        }
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int readLength) throws IOException {
+        int bytesRead = upstream.read(buffer, offset, readLength);
+        if (timing != null && bytesRead != C.RESULT_END_OF_INPUT) {
+            timing.bytes += bytesRead;
+        }
+        return bytesRead;
+    }
+
+    @Override
+    @Nullable
+    public Uri getUri() {
+        return upstream.getUri();
+    }
+
+    @Override
+    public Map<String, List<String>> getResponseHeaders() {
+        return upstream.getResponseHeaders();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            upstream.close();
+        } finally {
+            complete();
+        }
+    }
+
+    private void complete() {
+        final RequestTiming timing = this.timing;
+        if (timing == null) {
+            return;
+        }
+        this.timing = null;
+        timing.end();
+        timing.contentType = NetworkTimingStats.classify(timing.uri, timing.mimeType);
+        NetworkTimingStats.getInstance().add(timing);
+        if (!listener.isListeningForRequests()) {
+            return;
+        }
+        listenerHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onRequestCompleted(timing);
+            }
+        });
+    }
+}
@@ -0,0 +1,196 @@
+package com.brentvatne.exoplayer;
+
+import android.net.Uri;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.util.MimeTypes;
+import com.google.android.exoplayer2.util.Util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Histograms of the request timings of every player, grouped by host and by content type, to
+ * tell slow CDNs apart from slow devices and networks. Shared by all players, since they share
+ * their hosts and connections.
+ */
+class NetworkTimingStats {
+
+    static final String CONTENT_TYPE_MANIFEST = "manifest";
+    static final String CONTENT_TYPE_SEGMENT = "segment";
+    static final String CONTENT_TYPE_SUBTITLE = "subtitle";
+
+    /**
+     * Upper bounds of the histogram buckets, in milliseconds. Longer durations are counted by an
+     * extra, last bucket.
+     */
+    static final long[] BUCKET_BOUNDS_MS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private static final NetworkTimingStats instance = new NetworkTimingStats();
+
+    static class Histogram {
+        final int[] counts = new int[BUCKET_BOUNDS_MS.length + 1];
+        int count;
+        long sumMs;
+
+        void add(long durationMs) {
+            if (durationMs == C.TIME_UNSET) {
+                return;
+            }
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MS.length && durationMs > BUCKET_BOUNDS_MS[bucket]) {
+                bucket++;
+            }
+            counts[bucket]++;
+            count++;
+            sumMs += durationMs;
+        }
+
+        long getMeanMs() {
+            return count > 0 ? sumMs / count : 0;
+        }
+
+        Histogram copy() {
+            Histogram copy = new Histogram();
+            System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+            copy.count = count;
+            copy.sumMs = sumMs;
+            return copy;
+        }
+    }
+
+    /**
+     * Counters and timing histograms of the requests of a host or content type.
+     */
+    static class Group {
+        int requests;
+        int errors;
+        int cacheHits;
+        int reusedConnections;
+        long bytes;
+        Histogram dns = new Histogram();
+        Histogram connect = new Histogram();
+        Histogram tls = new Histogram();
+        Histogram timeToFirstByte = new Histogram();
+        Histogram transfer = new Histogram();
+        Histogram total = new Histogram();
+
+        void add(RequestTiming timing) {
+            requests++;
+            if (timing.failed) {
+                errors++;
+            }
+            if (RequestTiming.ORIGIN_CACHE.equals(timing.getOrigin())) {
+                cacheHits++;
+            }
+            if (timing.reusedConnection) {
+                reusedConnections++;
+            }
+            bytes += timing.bytes;
+            dns.add(timing.dnsMs);
+            connect.add(timing.connectMs);
+            tls.add(timing.tlsMs);
+            timeToFirstByte.add(timing.getTimeToFirstByteMs());
+            transfer.add(timing.receiveMs);
+            total.add(timing.totalMs);
+        }
+
+        Group copy() {
+            Group copy = new Group();
+            copy.requests = requests;
+            copy.errors = errors;
+            copy.cacheHits = cacheHits;
+            copy.reusedConnections = reusedConnections;
+            copy.bytes = bytes;
+            copy.dns = dns.copy();
+            copy.connect = connect.copy();
+            copy.tls = tls.copy();
+            copy.timeToFirstByte = timeToFirstByte.copy();
+            copy.transfer = transfer.copy();
+            copy.total = total.copy();
+            return copy;
+        }
+    }
+
+    private final Map<String, Group> hosts = new HashMap<>();
+    private final Map<String, Group> contentTypes = new HashMap<>();
+
+    static NetworkTimingStats getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the content type of a request, from the extension of its URI or else from the MIME
+     * type of its response.
+     */
+    static String classify(Uri uri, @Nullable String mimeType) {
+        String path = uri.getPath();
+        if (path != null) {
+            int type = Util.inferContentType(path);
+            if (type != C.TYPE_OTHER) {
+                return CONTENT_TYPE_MANIFEST;
+            }
+            String lowerPath = Util.toLowerInvariant(path);
+            if (lowerPath.endsWith(".vtt") || lowerPath.endsWith(".srt") || lowerPath.endsWith(".ttml")
+                    || lowerPath.endsWith(".dfxp")) {
+                return CONTENT_TYPE_SUBTITLE;
+            }
+        }
+        if (mimeType != null) {
+            String lowerMimeType = Util.toLowerInvariant(mimeType);
+            if (lowerMimeType.contains("mpegurl") || lowerMimeType.startsWith(MimeTypes.APPLICATION_MPD)
+                    || lowerMimeType.startsWith(MimeTypes.APPLICATION_SS)) {
+                return CONTENT_TYPE_MANIFEST;
+            }
+            if (MimeTypes.isText(lowerMimeType)) {
+                return CONTENT_TYPE_SUBTITLE;
+            }
+        }
+        return CONTENT_TYPE_SEGMENT;
+    }
+
+    synchronized void add(RequestTiming timing) {
+        if (timing.host != null) {
+            getGroup(hosts, timing.host).add(timing);
+        }
+        getGroup(contentTypes, timing.contentType).add(timing);
+    }
+
+    synchronized void reset() {
+        hosts.clear();
+        contentTypes.clear();
+    }
+
+    /**
+     * Returns a copy of the groups of each host.
+     */
+    synchronized Map<String, Group> getHosts() {
+        return copy(hosts);
+    }
+
+    /**
+     * Returns a copy of the groups of each content type.
+     */
+    synchronized Map<String, Group> getContentTypes() {
+        return copy(contentTypes);
+    }
+
+    private static Group getGroup(Map<String, Group> groups, String key) {
+        Group group = groups.get(key);
+        if (group == null) {
+            group = new Group();
+            groups.put(key, group);
+        }
+        return group;
+    }
+
+    private static Map<String, Group> copy(Map<String, Group> groups) {
+        Map<String, Group> copy = new HashMap<>();
+        for (Map.Entry<String, Group> entry : groups.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().copy());
+        }
+        return copy;
+    }
+}
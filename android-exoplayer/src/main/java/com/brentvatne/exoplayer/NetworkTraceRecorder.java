@@ -0,0 +1,246 @@
+package com.brentvatne.exoplayer;
+
+import com.google.android.exoplayer2.C;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the requests and state changes of a player in a ring buffer, and exports them as a HAR
+ * file for field debugging. Each source the player loads is a page of the HAR, and player events
+ * are listed under a custom {@code _playerEvents} field of the log.
+ *
+ * <p>Only created while recording is on, so players that don't record pay nothing. Recorded on the
+ * main thread, exported from any thread.
+ */
+class NetworkTraceRecorder {
+
+    private static final ConcurrentHashMap<Integer, NetworkTraceRecorder> registry = new ConcurrentHashMap<>();
+
+    private static final int CAPACITY = 1000;
+    private static final int MAX_PAGES = 32;
+    private static final String HAR_VERSION = "1.2";
+    private static final String CREATOR = "react-native-video";
+
+    static final String EVENT_SOURCE = "source";
+    static final String EVENT_STATE = "state";
+    static final String EVENT_SEEK = "seek";
+    static final String EVENT_ERROR = "error";
+
+    private static class Page {
+        final String id;
+        final long startWallTimeMs;
+        final String title;
+
+        Page(String id, long startWallTimeMs, String title) {
+            this.id = id;
+            this.startWallTimeMs = startWallTimeMs;
+            this.title = title;
+        }
+    }
+
+    private static class Entry {
+        final long wallTimeMs;
+        final String pageId;
+        // Either a request, or a player event
+        final RequestTiming timing;
+        final String type;
+        final String detail;
+        final long positionMs;
+
+        Entry(long wallTimeMs, String pageId, RequestTiming timing, String type, String detail, long positionMs) {
+            this.wallTimeMs = wallTimeMs;
+            this.pageId = pageId;
+            this.timing = timing;
+            this.type = type;
+            this.detail = detail;
+            this.positionMs = positionMs;
+        }
+    }
+
+    private final Entry[] entries = new Entry[CAPACITY];
+    private final List<Page> pages = new ArrayList<>();
+    private int nextEntry;
+    private int entryCount;
+    private int pageCount;
+
+    static void register(int viewId, NetworkTraceRecorder recorder) {
+        registry.put(viewId, recorder);
+    }
+
+    static void unregister(int viewId, NetworkTraceRecorder recorder) {
+        registry.remove(viewId, recorder);
+    }
+
+    /**
+     * Returns the recorder of the view with the given id, or null if it isn't recording.
+     */
+    static NetworkTraceRecorder get(int viewId) {
+        return registry.get(viewId);
+    }
+
+    /**
+     * Starts a page for a new source. Later entries belong to it.
+     */
+    synchronized void startPage(String title) {
+        if (pages.size() == MAX_PAGES) {
+            pages.remove(0);
+        }
+        long nowMs = System.currentTimeMillis();
+        Page page = new Page("page_" + ++pageCount, nowMs, title);
+        pages.add(page);
+        add(new Entry(nowMs, page.id, null, EVENT_SOURCE, title, C.TIME_UNSET));
+    }
+
+    synchronized void addRequest(RequestTiming timing) {
+        add(new Entry(timing.startWallTimeMs, getPageId(), timing, null, null, C.TIME_UNSET));
+    }
+
+    synchronized void addEvent(String type, String detail, long positionMs) {
+        add(new Entry(System.currentTimeMillis(), getPageId(), null, type, detail, positionMs));
+    }
+
+    /**
+     * Writes the recorded entries to a new HAR file in {@code directory}.
+     */
+    File export(File directory, String fileName) throws IOException, JSONException {
+        String har = toHar().toString();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Can't create " + directory);
+        }
+        File file = new File(directory, fileName);
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8"));
+        try {
+            writer.write(har);
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    synchronized JSONObject toHar() throws JSONException {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        JSONArray harPages = new JSONArray();
+        Set<String> pageIds = new HashSet<>();
+        for (Page page : pages) {
+            pageIds.add(page.id);
+            harPages.put(new JSONObject()
+                    .put("startedDateTime", dateFormat.format(new Date(page.startWallTimeMs)))
+                    .put("id", page.id)
+                    .put("title", page.title)
+                    .put("pageTimings", new JSONObject()));
+        }
+
+        JSONArray harEntries = new JSONArray();
+        JSONArray playerEvents = new JSONArray();
+        for (int i = 0; i < entryCount; i++) {
+            Entry entry = entries[(nextEntry - entryCount + i + CAPACITY) % CAPACITY];
+            if (entry.pageId != null && !pageIds.contains(entry.pageId)) {
+                // Its page was dropped to make room for newer ones
+                continue;
+            }
+            if (entry.timing != null) {
+                harEntries.put(toHarEntry(entry, dateFormat));
+            } else {
+                JSONObject event = new JSONObject()
+                        .put("time", dateFormat.format(new Date(entry.wallTimeMs)))
+                        .put("pageref", entry.pageId)
+                        .put("type", entry.type)
+                        .put("detail", entry.detail);
+                if (entry.positionMs != C.TIME_UNSET) {
+                    event.put("position", entry.positionMs / 1000D);
+                }
+                playerEvents.put(event);
+            }
+        }
+
+        JSONObject log = new JSONObject()
+                .put("version", HAR_VERSION)
+                .put("creator", new JSONObject().put("name", CREATOR).put("version", ""))
+                .put("pages", harPages)
+                .put("entries", harEntries)
+                .put("_playerEvents", playerEvents);
+        return new JSONObject().put("log", log);
+    }
+
+    private static JSONObject toHarEntry(Entry entry, SimpleDateFormat dateFormat) throws JSONException {
+        RequestTiming timing = entry.timing;
+        JSONObject request = new JSONObject()
+                .put("method", "GET")
+                .put("url", timing.uri.toString())
+                .put("httpVersion", "")
+                .put("cookies", new JSONArray())
+                .put("headers", new JSONArray())
+                .put("queryString", new JSONArray())
+                .put("headersSize", -1)
+                .put("bodySize", -1);
+        JSONArray responseHeaders = new JSONArray();
+        if (timing.mimeType != null) {
+            responseHeaders.put(new JSONObject().put("name", "Content-Type").put("value", timing.mimeType));
+        }
+        JSONObject response = new JSONObject()
+                .put("status", timing.statusCode)
+                .put("statusText", "")
+                .put("httpVersion", "")
+                .put("cookies", new JSONArray())
+                .put("headers", responseHeaders)
+                .put("content", new JSONObject()
+                        .put("size", timing.bytes)
+                        .put("mimeType", timing.mimeType != null ? timing.mimeType : ""))
+                .put("redirectURL", "")
+                .put("headersSize", -1)
+                .put("bodySize", timing.bytes);
+        JSONObject timings = new JSONObject()
+                .put("blocked", -1)
+                .put("dns", harTime(timing.dnsMs))
+                .put("connect", harTime(timing.connectMs))
+                .put("ssl", harTime(timing.tlsMs))
+                .put("send", Math.max(0, harTime(timing.sendMs)))
+                .put("wait", Math.max(0, harTime(timing.waitMs)))
+                .put("receive", Math.max(0, harTime(timing.receiveMs)));
+        return new JSONObject()
+                .put("pageref", entry.pageId)
+                .put("startedDateTime", dateFormat.format(new Date(entry.wallTimeMs)))
+                .put("time", harTime(timing.totalMs))
+                .put("request", request)
+                .put("response", response)
+                .put("cache", new JSONObject())
+                .put("timings", timings)
+                .put("_contentType", timing.contentType)
+                .put("_origin", timing.getOrigin())
+                .put("_failed", timing.failed);
+    }
+
+    private static long harTime(long durationMs) {
+        return durationMs == C.TIME_UNSET ? -1 : durationMs;
+    }
+
+    private String getPageId() {
+        return pages.isEmpty() ? null : pages.get(pages.size() - 1).id;
+    }
+
+    private void add(Entry entry) {
+        entries[nextEntry] = entry;
+        nextEntry = (nextEntry + 1) % CAPACITY;
+        entryCount = Math.min(entryCount + 1, CAPACITY);
+    }
+}
@@ -0,0 +1,140 @@
+package com.brentvatne.exoplayer;
+
+import android.net.Uri;
+import android.text.TextUtils;
+
+import com.google.android.exoplayer2.extractor.DefaultExtractorsFactory;
+import com.google.android.exoplayer2.extractor.Extractor;
+import com.google.android.exoplayer2.extractor.ExtractorsFactory;
+import com.google.android.exoplayer2.extractor.mkv.MatroskaExtractor;
+import com.google.android.exoplayer2.extractor.mp3.Mp3Extractor;
+import com.google.android.exoplayer2.extractor.mp4.FragmentedMp4Extractor;
+import com.google.android.exoplayer2.extractor.mp4.Mp4Extractor;
+import com.google.android.exoplayer2.extractor.ts.PsExtractor;
+import com.google.android.exoplayer2.extractor.ts.TsExtractor;
+import com.google.android.exoplayer2.util.MimeTypes;
+import com.google.android.exoplayer2.util.Util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link ExtractorsFactory} that puts the extractor matching a container declared by the source
+ * type or file extension first, so that progressive sources don't have to be sniffed against every
+ * supported container format before playback can start. The other default extractors follow it,
+ * so a source whose declared container is wrong is still recognized by sniffing.
+ */
+final class PinnedExtractorsFactory implements ExtractorsFactory {
+
+    private static final int CONTAINER_MP4 = 0;
+    private static final int CONTAINER_WEBM = 1;
+    private static final int CONTAINER_TS = 2;
+    private static final int CONTAINER_MP3 = 3;
+    private static final int CONTAINER_PS = 4;
+
+    private final int container;
+    private final ExtractorsFactory fallbackFactory = new DefaultExtractorsFactory();
+
+    private PinnedExtractorsFactory(int container) {
+        this.container = container;
+    }
+
+    /**
+     * Returns a factory pinned to the container declared by {@code overrideExtension}, or by the
+     * last path segment of {@code uri} when no override is given.
+     *
+     * @return The pinned factory, or null if the container can't be determined, in which case the
+     * default extractors should be used.
+     */
+    static ExtractorsFactory forSource(Uri uri, String overrideExtension) {
+        String extension = !TextUtils.isEmpty(overrideExtension)
+                ? overrideExtension : extensionOf(uri.getLastPathSegment());
+        if (TextUtils.isEmpty(extension)) {
+            return null;
+        }
+        extension = Util.toLowerInvariant(extension);
+        if (MimeTypes.AUDIO_MPEG.equals(extension)) {
+            // Unlike video/mpeg, which is a program stream
+            return new PinnedExtractorsFactory(CONTAINER_MP3);
+        }
+        // Accept mime types such as "video/mp4" as well as plain extensions
+        int slashIndex = extension.lastIndexOf('/');
+        if (slashIndex != -1) {
+            extension = extension.substring(slashIndex + 1);
+        }
+        if (extension.startsWith(".")) {
+            extension = extension.substring(1);
+        }
+        switch (extension) {
+            case "mp4":
+            case "m4v":
+            case "m4a":
+            case "mov":
+                return new PinnedExtractorsFactory(CONTAINER_MP4);
+            case "webm":
+            case "mkv":
+                return new PinnedExtractorsFactory(CONTAINER_WEBM);
+            case "ts":
+            case "mp2t":
+                return new PinnedExtractorsFactory(CONTAINER_TS);
+            case "mp3":
+                return new PinnedExtractorsFactory(CONTAINER_MP3);
+            case "mpeg":
+            case "mpg":
+                return new PinnedExtractorsFactory(CONTAINER_PS);
+            default:
+                return null;
+        }
+    }
+
+    private static String extensionOf(String lastPathSegment) {
+        if (lastPathSegment == null) {
+            return null;
+        }
+        int dotIndex = lastPathSegment.lastIndexOf('.');
+        return dotIndex == -1 ? null : lastPathSegment.substring(dotIndex + 1);
+    }
+
+    @Override
+    public Extractor[] createExtractors() {
+        Extractor[] pinnedExtractors = createPinnedExtractors();
+        List<Extractor> extractors = new ArrayList<>();
+        for (Extractor extractor : pinnedExtractors) {
+            extractors.add(extractor);
+        }
+        // Extractors are sniffed in order, so the others are only tried if the pinned ones fail
+        for (Extractor extractor : fallbackFactory.createExtractors()) {
+            if (!isPinned(extractor, pinnedExtractors)) {
+                extractors.add(extractor);
+            }
+        }
+        return extractors.toArray(new Extractor[0]);
+    }
+
+    private static boolean isPinned(Extractor extractor, Extractor[] pinnedExtractors) {
+        for (Extractor pinnedExtractor : pinnedExtractors) {
+            if (pinnedExtractor.getClass() == extractor.getClass()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Extractor[] createPinnedExtractors() {
+        switch (container) {
+            case CONTAINER_MP4:
+                // Progressive mp4 files may still be fragmented, so keep both mp4 extractors
+                return new Extractor[] {new Mp4Extractor(), new FragmentedMp4Extractor()};
+            case CONTAINER_WEBM:
+                return new Extractor[] {new MatroskaExtractor()};
+            case CONTAINER_TS:
+                return new Extractor[] {new TsExtractor()};
+            case CONTAINER_MP3:
+                return new Extractor[] {new Mp3Extractor()};
+            case CONTAINER_PS:
+                return new Extractor[] {new PsExtractor()};
+            default:
+                throw new IllegalStateException("Unsupported container: " + container);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.brentvatne.exoplayer;
+
+import android.os.SystemClock;
+
+import com.google.android.exoplayer2.C;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The latest playback position, buffered position and duration of a player, published by its
+ * view on the main thread and read from any thread without locking.
+ *
+ * <p>Values are guarded by a sequence number that is odd while a write is in progress, so readers
+ * retry instead of blocking the writer. While playing, reads extrapolate the position from the
+ * time it was published, so it can be sampled far more often than it is published.
+ */
+class PlaybackSnapshot {
+
+    private static final ConcurrentHashMap<Integer, PlaybackSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    private static final int SEQUENCE = 0;
+    private static final int POSITION = 1;
+    private static final int BUFFERED_POSITION = 2;
+    private static final int DURATION = 3;
+    private static final int PUBLISH_TIME = 4;
+    private static final int SPEED = 5;
+    private static final int PLAYING = 6;
+    private static final int SIZE = 7;
+
+    static class Values {
+        final long positionMs;
+        final long bufferedPositionMs;
+        final long durationMs;
+
+        Values(long positionMs, long bufferedPositionMs, long durationMs) {
+            this.positionMs = positionMs;
+            this.bufferedPositionMs = bufferedPositionMs;
+            this.durationMs = durationMs;
+        }
+    }
+
+    private final AtomicLongArray values = new AtomicLongArray(SIZE);
+
+    static PlaybackSnapshot register(int viewId) {
+        PlaybackSnapshot snapshot = new PlaybackSnapshot();
+        snapshots.put(viewId, snapshot);
+        return snapshot;
+    }
+
+    static void unregister(int viewId, PlaybackSnapshot snapshot) {
+        snapshots.remove(viewId, snapshot);
+    }
+
+    /**
+     * Returns the snapshot published by the view with the given id, or null if there is none.
+     */
+    static PlaybackSnapshot get(int viewId) {
+        return snapshots.get(viewId);
+    }
+
+    /**
+     * Publishes new values. Must only be called by the single thread owning the player.
+     */
+    void publish(long positionMs, long bufferedPositionMs, long durationMs, float speed, boolean playing) {
+        long sequence = values.get(SEQUENCE);
+        values.set(SEQUENCE, sequence + 1);
+        values.set(POSITION, positionMs);
+        values.set(BUFFERED_POSITION, bufferedPositionMs);
+        values.set(DURATION, durationMs);
+        values.set(PUBLISH_TIME, SystemClock.elapsedRealtime());
+        values.set(SPEED, Float.floatToIntBits(speed));
+        values.set(PLAYING, playing ? 1 : 0);
+        values.set(SEQUENCE, sequence + 2);
+    }
+
+    Values read() {
+        while (true) {
+            long sequence = values.get(SEQUENCE);
+            if ((sequence & 1) != 0) {
+                continue;
+            }
+            long positionMs = values.get(POSITION);
+            long bufferedPositionMs = values.get(BUFFERED_POSITION);
+            long durationMs = values.get(DURATION);
+            long publishTimeMs = values.get(PUBLISH_TIME);
+            float speed = Float.intBitsToFloat((int) values.get(SPEED));
+            boolean playing = values.get(PLAYING) != 0;
+            if (values.get(SEQUENCE) != sequence) {
+                continue;
+            }
+            if (playing) {
+                positionMs += (long) ((SystemClock.elapsedRealtime() - publishTimeMs) * speed);
+                // Playback can't get ahead of the buffer
+                positionMs = Math.min(positionMs, bufferedPositionMs);
+                if (durationMs != C.TIME_UNSET) {
+                    positionMs = Math.min(positionMs, durationMs);
+                }
+            }
+            return new Values(positionMs, bufferedPositionMs, durationMs);
+        }
+    }
+}
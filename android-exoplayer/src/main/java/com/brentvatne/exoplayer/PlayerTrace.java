@@ -0,0 +1,54 @@
+package com.brentvatne.exoplayer;
+
+import androidx.core.os.TraceCompat;
+
+/**
+ * Trace sections around the player's main thread work, so it shows up in systrace and Perfetto
+ * captures next to the app's own frames. Sections are named with an "RNV." prefix.
+ *
+ * <p>Off by default and switched at runtime through
+ * {@link ReactExoplayerModule#setTracingEnabled(boolean)}. While off, a section costs a volatile
+ * read. A section begun while on is always ended, even if tracing is switched off meanwhile.
+ */
+final class PlayerTrace {
+
+    private static volatile boolean enabled;
+
+    private PlayerTrace() {
+    }
+
+    static void setEnabled(boolean enabled) {
+        PlayerTrace.enabled = enabled;
+    }
+
+    /**
+     * Begins a section if tracing is on.
+     *
+     * @return Whether a section was begun, to be passed to {@link #end(boolean)}.
+     */
+    static boolean begin(String name) {
+        if (!enabled) {
+            return false;
+        }
+        TraceCompat.beginSection(name);
+        return true;
+    }
+
+    /**
+     * Begins a section named after a prefix and a detail, such as an event name, if tracing is on.
+     * The name is only built when tracing.
+     */
+    static boolean begin(String prefix, String detail) {
+        if (!enabled) {
+            return false;
+        }
+        TraceCompat.beginSection(prefix + detail);
+        return true;
+    }
+
+    static void end(boolean begun) {
+        if (begun) {
+            TraceCompat.endSection();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.brentvatne.exoplayer;
+
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single progress timer shared by every player. Ticks fall on a grid of multiples of each
+ * player's interval, so players with the same or related intervals are due at the same time no
+ * matter when they started, and are ticked together in one pass on the same display frame instead
+ * of each player waking up the main thread on its own schedule. Must only be used from the main
+ * thread.
+ */
+class ProgressTicker implements Choreographer.FrameCallback {
+
+    interface Listener {
+        void onProgressTick();
+    }
+
+    // Players due within this much of a frame are ticked with that frame rather than the next one
+    private static final long FRAME_TOLERANCE_MS = 8;
+
+    private static ProgressTicker instance;
+
+    private final Choreographer choreographer = Choreographer.getInstance();
+    private final ArrayList<Entry> entries = new ArrayList<>();
+    private boolean frameCallbackPosted;
+
+    static ProgressTicker getInstance() {
+        if (instance == null) {
+            instance = new ProgressTicker();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts ticking the listener every {@code intervalMs}, from the next frame on. Ticks after the
+     * first one fall on the shared grid.
+     */
+    void start(Listener listener, long intervalMs) {
+        Entry entry = find(listener);
+        if (entry == null) {
+            entry = new Entry(listener);
+            entries.add(entry);
+        }
+        long nowMs = nowMs();
+        entry.intervalMs = intervalMs;
+        entry.nextTickMs = nowMs;
+        schedule(nowMs);
+    }
+
+    void stop(Listener listener) {
+        Entry entry = find(listener);
+        if (entry != null) {
+            entries.remove(entry);
+        }
+        if (entries.isEmpty() && frameCallbackPosted) {
+            choreographer.removeFrameCallback(this);
+            frameCallbackPosted = false;
+        }
+    }
+
+    /**
+     * Changes the interval of a listener already ticking, moving its next tick onto the grid of
+     * the new interval.
+     */
+    void setInterval(Listener listener, long intervalMs) {
+        Entry entry = find(listener);
+        if (entry != null) {
+            long nowMs = nowMs();
+            entry.intervalMs = intervalMs;
+            entry.nextTickMs = nextGridTickMs(nowMs, intervalMs);
+            schedule(nowMs);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameCallbackPosted = false;
+        long frameTimeMs = TimeUnit.NANOSECONDS.toMillis(frameTimeNanos);
+        // Listeners may stop themselves, or others, while ticking
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            if (i >= entries.size()) {
+                continue;
+            }
+            Entry entry = entries.get(i);
+            if (entry.nextTickMs <= frameTimeMs + FRAME_TOLERANCE_MS) {
+                entry.nextTickMs = nextGridTickMs(frameTimeMs + FRAME_TOLERANCE_MS, entry.intervalMs);
+                entry.listener.onProgressTick();
+            }
+        }
+        schedule(frameTimeMs);
+    }
+
+    private void schedule(long nowMs) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        long nextTickMs = Long.MAX_VALUE;
+        for (int i = 0; i < entries.size(); i++) {
+            nextTickMs = Math.min(nextTickMs, entries.get(i).nextTickMs);
+        }
+        if (frameCallbackPosted) {
+            choreographer.removeFrameCallback(this);
+        }
+        choreographer.postFrameCallbackDelayed(this, Math.max(0, nextTickMs - nowMs - FRAME_TOLERANCE_MS));
+        frameCallbackPosted = true;
+    }
+
+    /**
+     * Returns the first multiple of {@code intervalMs} after {@code timeMs}.
+     */
+    private static long nextGridTickMs(long timeMs, long intervalMs) {
+        intervalMs = Math.max(1, intervalMs);
+        return (timeMs / intervalMs + 1) * intervalMs;
+    }
+
+    private Entry find(Listener listener) {
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (entry.listener == listener) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private static long nowMs() {
+        // Same time base as the frame times handed out by the choreographer
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    private static class Entry {
+        final Listener listener;
+        long intervalMs;
+        long nextTickMs;
+
+        Entry(Listener listener) {
+            this.listener = listener;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.brentvatne.exoplayer;
+
+import android.os.SystemClock;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.ExoPlaybackException;
+import com.google.android.exoplayer2.Format;
+import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.analytics.AnalyticsListener;
+import com.google.android.exoplayer2.source.MediaSourceEventListener;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects quality of experience metrics for a playback session: startup time, rebuffering, time
+ * spent at each video rendition, dropped frames, seek latency and errors. Attached to the player
+ * as an {@link AnalyticsListener}, so every metric is measured on the player's own events.
+ */
+class QoeCollector implements AnalyticsListener {
+
+    /**
+     * Time spent playing a video rendition.
+     */
+    static class Rendition {
+        final int bitrate;
+        final int width;
+        final int height;
+        long playTimeMs;
+
+        Rendition(int bitrate, int width, int height) {
+            this.bitrate = bitrate;
+            this.width = width;
+            this.height = height;
+        }
+
+        boolean matches(Format format) {
+            return bitrate == format.bitrate && width == format.width && height == format.height;
+        }
+    }
+
+    private static final int STATE_IDLE = 0;
+    private static final int STATE_PLAYING = 1;
+    private static final int STATE_REBUFFERING = 2;
+
+    private final List<Rendition> renditions = new ArrayList<>();
+
+    private long sessionStartTimeMs;
+    private long startupTimeMs;
+    private int rebufferCount;
+    private long rebufferTimeMs;
+    private long playTimeMs;
+    private int droppedFrames;
+    private int seekCount;
+    private long seekLatencySumMs;
+    private long seekStartTimeMs;
+    private int errorCount;
+    private int loadErrorCount;
+
+    private int state;
+    private long stateStartTimeMs;
+    private boolean seeking;
+    private boolean ended;
+    private Rendition currentRendition;
+
+    QoeCollector() {
+        reset();
+    }
+
+    /**
+     * Starts a new session. The rendition being played carries over.
+     */
+    void reset() {
+        renditions.clear();
+        sessionStartTimeMs = SystemClock.elapsedRealtime();
+        startupTimeMs = C.TIME_UNSET;
+        rebufferCount = 0;
+        rebufferTimeMs = 0;
+        playTimeMs = 0;
+        droppedFrames = 0;
+        seekCount = 0;
+        seekLatencySumMs = 0;
+        seekStartTimeMs = C.TIME_UNSET;
+        errorCount = 0;
+        loadErrorCount = 0;
+        state = STATE_IDLE;
+        stateStartTimeMs = sessionStartTimeMs;
+        seeking = false;
+        ended = false;
+        if (currentRendition != null) {
+            Rendition rendition = new Rendition(currentRendition.bitrate, currentRendition.width, currentRendition.height);
+            renditions.add(rendition);
+            currentRendition = rendition;
+        }
+    }
+
+    /**
+     * Ends the session once playback ended. The next session starts when playback is restarted, by
+     * seeking or playing again, so its startup time is measured from there.
+     */
+    void end() {
+        update();
+        ended = true;
+    }
+
+    /**
+     * Accounts the time spent in the current state up to now, so the getters are up to date.
+     */
+    void update() {
+        setState(state, SystemClock.elapsedRealtime());
+    }
+
+    @Override
+    public void onPlayerStateChanged(EventTime eventTime, boolean playWhenReady, int playbackState) {
+        if (ended) {
+            if (playbackState == Player.STATE_ENDED) {
+                return;
+            }
+            reset();
+        }
+        long nowMs = SystemClock.elapsedRealtime();
+        if (playbackState == Player.STATE_READY) {
+            if (startupTimeMs == C.TIME_UNSET) {
+                startupTimeMs = nowMs - sessionStartTimeMs;
+            }
+            if (seekStartTimeMs != C.TIME_UNSET) {
+                seekCount++;
+                seekLatencySumMs += nowMs - seekStartTimeMs;
+                seekStartTimeMs = C.TIME_UNSET;
+            }
+            seeking = false;
+            setState(playWhenReady ? STATE_PLAYING : STATE_IDLE, nowMs);
+        } else if (playbackState == Player.STATE_BUFFERING && playWhenReady
+                && startupTimeMs != C.TIME_UNSET && !seeking) {
+            // Waiting for data after startup, other than for a seek, is a rebuffer
+            if (state != STATE_REBUFFERING) {
+                rebufferCount++;
+            }
+            setState(STATE_REBUFFERING, nowMs);
+        } else {
+            setState(STATE_IDLE, nowMs);
+        }
+    }
+
+    @Override
+    public void onSeekStarted(EventTime eventTime) {
+        if (ended) {
+            reset();
+        }
+        seeking = true;
+        seekStartTimeMs = SystemClock.elapsedRealtime();
+    }
+
+    @Override
+    public void onPlayerError(EventTime eventTime, ExoPlaybackException error) {
+        errorCount++;
+    }
+
+    @Override
+    public void onLoadError(EventTime eventTime, MediaSourceEventListener.LoadEventInfo loadEventInfo,
+                            MediaSourceEventListener.MediaLoadData mediaLoadData, IOException error,
+                            boolean wasCanceled) {
+        loadErrorCount++;
+    }
+
+    @Override
+    public void onDroppedVideoFrames(EventTime eventTime, int droppedFrames, long elapsedMs) {
+        this.droppedFrames += droppedFrames;
+    }
+
+    @Override
+    public void onDecoderInputFormatChanged(EventTime eventTime, int trackType, Format format) {
+        if (trackType != C.TRACK_TYPE_VIDEO) {
+            return;
+        }
+        // Close the time spent at the previous rendition
+        update();
+        currentRendition = null;
+        for (Rendition rendition : renditions) {
+            if (rendition.matches(format)) {
+                currentRendition = rendition;
+                break;
+            }
+        }
+        if (currentRendition == null) {
+            currentRendition = new Rendition(format.bitrate, format.width, format.height);
+            renditions.add(currentRendition);
+        }
+    }
+
+    private void setState(int newState, long nowMs) {
+        long elapsedMs = nowMs - stateStartTimeMs;
+        if (state == STATE_PLAYING) {
+            playTimeMs += elapsedMs;
+            if (currentRendition != null) {
+                currentRendition.playTimeMs += elapsedMs;
+            }
+        } else if (state == STATE_REBUFFERING) {
+            rebufferTimeMs += elapsedMs;
+        }
+        state = newState;
+        stateStartTimeMs = nowMs;
+    }
+
+    /**
+     * Returns whether the session got past startup or ran into errors, as opposed to never having
+     * had a source to play or having ended.
+     */
+    boolean hasActivity() {
+        return !ended && (startupTimeMs != C.TIME_UNSET || errorCount > 0 || loadErrorCount > 0);
+    }
+
+    long getStartupTimeMs() {
+        return startupTimeMs;
+    }
+
+    int getRebufferCount() {
+        return rebufferCount;
+    }
+
+    long getRebufferTimeMs() {
+        return rebufferTimeMs;
+    }
+
+    long getPlayTimeMs() {
+        return playTimeMs;
+    }
+
+    /**
+     * Returns the share of the time spent waiting for data rather than playing, after startup.
+     */
+    double getRebufferRatio() {
+        long totalMs = playTimeMs + rebufferTimeMs;
+        return totalMs > 0 ? (double) rebufferTimeMs / totalMs : 0;
+    }
+
+    int getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * Returns the average video bitrate, weighted by the time each rendition was played.
+     */
+    long getAverageBitrate() {
+        long weightedBitrate = 0;
+        long renditionTimeMs = 0;
+        for (Rendition rendition : renditions) {
+            if (rendition.bitrate != Format.NO_VALUE) {
+                weightedBitrate += (long) rendition.bitrate * rendition.playTimeMs;
+                renditionTimeMs += rendition.playTimeMs;
+            }
+        }
+        return renditionTimeMs > 0 ? weightedBitrate / renditionTimeMs : 0;
+    }
+
+    int getSeekCount() {
+        return seekCount;
+    }
+
+    long getAverageSeekLatencyMs() {
+        return seekCount > 0 ? seekLatencySumMs / seekCount : 0;
+    }
+
+    int getErrorCount() {
+        return errorCount;
+    }
+
+    int getLoadErrorCount() {
+        return loadErrorCount;
+    }
+
+    List<Rendition> getRenditions() {
+        return renditions;
+    }
+}
@@ -1,5 +1,7 @@
 package com.brentvatne.exoplayer;
 
+import com.google.android.exoplayer2.trackselection.AdaptiveTrackSelection;
+import com.google.android.exoplayer2.trackselection.TrackSelection;
 import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
 import com.google.android.exoplayer2.upstream.LoadErrorHandlingPolicy;
 
@@ -9,5 +11,17 @@ import com.google.android.exoplayer2.upstream.LoadErrorHandlingPolicy;
 public interface ReactExoplayerConfig {
     LoadErrorHandlingPolicy buildLoadErrorHandlingPolicy(int minLoadRetryCount);
 
+    /**
+     * Returns the bandwidth meter shared by every player, so that the estimate gathered by one
+     * player seeds the initial track selection of the next one.
+     */
     DefaultBandwidthMeter getBandwidthMeter();
+
+    /**
+     * Returns the factory used to create the adaptive video track selection, such as
+     * {@link AdaptiveTrackSelection.Factory} or {@link BufferBasedTrackSelection.Factory}.
+     */
+    default TrackSelection.Factory buildTrackSelectionFactory() {
+        return new AdaptiveTrackSelection.Factory();
+    }
 }
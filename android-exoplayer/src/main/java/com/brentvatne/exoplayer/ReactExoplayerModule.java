@@ -0,0 +1,108 @@
+package com.brentvatne.exoplayer;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.WritableMap;
+
+import java.io.File;
+
+/**
+ * Native methods called on a player by the tag of its view.
+ */
+public class ReactExoplayerModule extends ReactContextBaseJavaModule {
+
+    private static final String REACT_CLASS = "ExoPlayerModule";
+
+    private static final String PROP_CURRENT_TIME = "currentTime";
+    private static final String PROP_PLAYABLE_DURATION = "playableDuration";
+    private static final String PROP_SEEKABLE_DURATION = "seekableDuration";
+
+    private static final String NETWORK_TRACE_DIRECTORY = "rnv-network-traces";
+    private static final String ERROR_NOT_RECORDING = "E_NOT_RECORDING";
+    private static final String ERROR_EXPORT_FAILED = "E_EXPORT_FAILED";
+
+    public ReactExoplayerModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+
+    @Override
+    public String getName() {
+        return REACT_CLASS;
+    }
+
+    /**
+     * Returns the current position, buffered position and duration of a player, in seconds, or
+     * null if there is no player for the tag. Doesn't wait on the main thread, so it can be called
+     * on every frame.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap getPlaybackStatus(int reactTag) {
+        PlaybackSnapshot snapshot = PlaybackSnapshot.get(reactTag);
+        if (snapshot == null) {
+            return null;
+        }
+        PlaybackSnapshot.Values values = snapshot.read();
+        WritableMap status = Arguments.createMap();
+        status.putDouble(PROP_CURRENT_TIME, values.positionMs / 1000D);
+        status.putDouble(PROP_PLAYABLE_DURATION, values.bufferedPositionMs / 1000D);
+        status.putDouble(PROP_SEEKABLE_DURATION, values.durationMs / 1000D);
+        return status;
+    }
+
+    /**
+     * Returns the decoder counters, dropped frame histogram and frames rendered at each video
+     * rendition of a player, for its current source, or null if there is no player for the tag.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap getDecoderStats(int reactTag) {
+        DecoderStats stats = DecoderStats.get(reactTag);
+        if (stats == null) {
+            return null;
+        }
+        return VideoEventEmitter.buildDecoderStats(stats.read());
+    }
+
+    /**
+     * Returns the request timing histograms of every player, by host and by content type.
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap getNetworkStats() {
+        return VideoEventEmitter.buildNetworkStats(NetworkTimingStats.getInstance());
+    }
+
+    @ReactMethod
+    public void resetNetworkStats() {
+        NetworkTimingStats.getInstance().reset();
+    }
+
+    /**
+     * Writes the network trace recorded by a player to a HAR file in the cache directory, and
+     * resolves with the path of the file. Runs on the native modules thread, off the main thread.
+     */
+    @ReactMethod
+    public void exportNetworkTrace(int reactTag, Promise promise) {
+        NetworkTraceRecorder recorder = NetworkTraceRecorder.get(reactTag);
+        if (recorder == null) {
+            promise.reject(ERROR_NOT_RECORDING, "The player isn't recording a network trace");
+            return;
+        }
+        File directory = new File(getReactApplicationContext().getCacheDir(), NETWORK_TRACE_DIRECTORY);
+        String fileName = "trace-" + reactTag + "-" + System.currentTimeMillis() + ".har";
+        try {
+            promise.resolve(recorder.export(directory, fileName).getAbsolutePath());
+        } catch (Exception e) {
+            promise.reject(ERROR_EXPORT_FAILED, e);
+        }
+    }
+
+    /**
+     * Switches the player's systrace and Perfetto sections on or off, for every player.
+     */
+    @ReactMethod
+    public void setTracingEnabled(boolean enabled) {
+        PlayerTrace.setEnabled(enabled);
+    }
+}
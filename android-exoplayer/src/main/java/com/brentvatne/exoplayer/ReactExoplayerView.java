@@ -3,13 +3,14 @@ package com.brentvatne.exoplayer;
 import android.annotation.SuppressLint;
 import android.app.Activity;
 import android.content.Context;
+import android.graphics.Rect;
 import android.media.AudioManager;
 import android.net.Uri;
 import android.os.Handler;
-import android.os.Message;
 import android.text.TextUtils;
 import android.util.Log;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.view.Window;
 import android.view.accessibility.CaptioningManager;
 import android.widget.FrameLayout;
@@ -36,12 +37,15 @@ import com.google.android.exoplayer2.PlaybackParameters;
 import com.google.android.exoplayer2.Player;
 import com.google.android.exoplayer2.SimpleExoPlayer;
 import com.google.android.exoplayer2.Timeline;
+import com.google.android.exoplayer2.analytics.AnalyticsListener;
+import com.google.android.exoplayer2.extractor.DefaultExtractorsFactory;
+import com.google.android.exoplayer2.extractor.ExtractorsFactory;
 import com.google.android.exoplayer2.mediacodec.MediaCodecRenderer;
 import com.google.android.exoplayer2.mediacodec.MediaCodecUtil;
 import com.google.android.exoplayer2.metadata.Metadata;
 import com.google.android.exoplayer2.metadata.MetadataOutput;
-import com.google.android.exoplayer2.source.BehindLiveWindowException;
 import com.google.android.exoplayer2.source.MediaSource;
+import com.google.android.exoplayer2.source.MediaSourceEventListener;
 import com.google.android.exoplayer2.source.MergingMediaSource;
 import com.google.android.exoplayer2.source.ProgressiveMediaSource;
 import com.google.android.exoplayer2.source.SingleSampleMediaSource;
@@ -52,7 +56,6 @@ import com.google.android.exoplayer2.source.dash.DefaultDashChunkSource;
 import com.google.android.exoplayer2.source.hls.HlsMediaSource;
 import com.google.android.exoplayer2.source.smoothstreaming.DefaultSsChunkSource;
 import com.google.android.exoplayer2.source.smoothstreaming.SsMediaSource;
-import com.google.android.exoplayer2.trackselection.AdaptiveTrackSelection;
 import com.google.android.exoplayer2.trackselection.DefaultTrackSelector;
 import com.google.android.exoplayer2.trackselection.MappingTrackSelector;
 import com.google.android.exoplayer2.trackselection.TrackSelection;
@@ -62,13 +65,14 @@ import com.google.android.exoplayer2.upstream.BandwidthMeter;
 import com.google.android.exoplayer2.upstream.DataSource;
 import com.google.android.exoplayer2.upstream.DefaultAllocator;
 import com.google.android.exoplayer2.upstream.DefaultBandwidthMeter;
-import com.google.android.exoplayer2.upstream.HttpDataSource;
+import com.google.android.exoplayer2.upstream.LoadErrorHandlingPolicy;
 import com.google.android.exoplayer2.util.Util;
 
 import java.net.CookieHandler;
 import java.net.CookieManager;
 import java.net.CookiePolicy;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -79,12 +83,18 @@ class ReactExoplayerView extends FrameLayout implements
         BandwidthMeter.EventListener,
         BecomingNoisyListener,
         AudioManager.OnAudioFocusChangeListener,
+        AdaptiveLoadErrorHandlingPolicy.Listener,
+        MemoryPressureHandler.Listener,
+        ProgressTicker.Listener,
+        NetworkTimingDataSource.Listener,
         MetadataOutput {
 
     private static final String TAG = "ReactExoplayerView";
 
     private static final CookieManager DEFAULT_COOKIE_MANAGER;
-    private static final int SHOW_PROGRESS = 1;
+
+    static final long DEFAULT_OFFSCREEN_HOLD_DELAY_MS = 5000;
+    static final long DEFAULT_OFFSCREEN_RELEASE_DELAY_MS = 30000;
 
     static {
         DEFAULT_COOKIE_MANAGER = new CookieManager();
@@ -94,6 +104,8 @@ class ReactExoplayerView extends FrameLayout implements
     private final VideoEventEmitter eventEmitter;
     private final ReactExoplayerConfig config;
     private final DefaultBandwidthMeter bandwidthMeter;
+    private final LiveLatencyController liveLatencyController = new LiveLatencyController();
+    private final ErrorRecovery errorRecovery = new ErrorRecovery();
     private PlayerControlView playerControlView;
     private View playPauseControlContainer;
     private Player.EventListener eventListener;
@@ -101,7 +113,10 @@ class ReactExoplayerView extends FrameLayout implements
     private ExoPlayerView exoPlayerView;
 
     private DataSource.Factory mediaDataSourceFactory;
+    private CdnFailoverController cdnFailoverController;
     private SimpleExoPlayer player;
+    private BudgetedLoadControl loadControl;
+    private MediaSource mediaSource;
     private DefaultTrackSelector trackSelector;
     private boolean playerNeedsSource;
 
@@ -110,6 +125,32 @@ class ReactExoplayerView extends FrameLayout implements
     private boolean loadVideoStarted;
     private boolean isFullscreen;
     private boolean isInBackground;
+    private boolean releasedUntilNeeded;
+    private boolean offscreenHandling;
+    private long offscreenHoldDelayMs;
+    private long offscreenReleaseDelayMs;
+    private boolean isOffscreen;
+    private boolean offscreenHeld;
+    private boolean isAttached;
+    private final Rect visibleRect = new Rect();
+    private final Handler mainHandler = new Handler();
+    private long bandwidthReportIntervalMs;
+    // Read on the loading threads
+    private volatile boolean reportRequestTiming;
+    private volatile NetworkTraceRecorder networkTraceRecorder;
+    private final BandwidthAggregator bandwidthAggregator = new BandwidthAggregator();
+    private long bitrateEstimate;
+    private boolean bandwidthSummaryScheduled;
+    private long qoeReportIntervalMs;
+    private QoeCollector qoeCollector;
+    private final DecoderStats decoderStats = new DecoderStats();
+    private long decoderStatsIntervalMs;
+    private PlaybackSnapshot playbackSnapshot;
+    private int playbackSnapshotId;
+    private final Timeline.Window progressWindow = new Timeline.Window();
+    private Timeline progressTimeline;
+    private int progressWindowIndex = C.INDEX_UNSET;
+    private long progressWindowStartTimeMs;
     private boolean isPaused;
     private boolean isBuffering;
     private boolean muted = false;
@@ -118,11 +159,15 @@ class ReactExoplayerView extends FrameLayout implements
     private int minLoadRetryCount = 3;
     private int maxBitRate = 0;
     private long seekTime = C.TIME_UNSET;
+    private int viewportWidth;
+    private int viewportHeight;
 
-    private int minBufferMs = DefaultLoadControl.DEFAULT_MIN_BUFFER_MS;
-    private int maxBufferMs = DefaultLoadControl.DEFAULT_MAX_BUFFER_MS;
-    private int bufferForPlaybackMs = DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_MS;
-    private int bufferForPlaybackAfterRebufferMs = DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS;
+    // Buffer durations set by bufferConfig, or C.LENGTH_UNSET to use the device's profile
+    private int minBufferMs = C.LENGTH_UNSET;
+    private int maxBufferMs = C.LENGTH_UNSET;
+    private int bufferForPlaybackMs = C.LENGTH_UNSET;
+    private int bufferForPlaybackAfterRebufferMs = C.LENGTH_UNSET;
+    private BufferProfile deviceBufferProfile;
 
     // Props from React
     private Uri srcUri;
@@ -141,6 +186,7 @@ class ReactExoplayerView extends FrameLayout implements
     private boolean playInBackground = false;
     private Map<String, String> requestHeaders;
     private boolean mReportBandwidth = false;
+    private boolean preconnect = false;
     private boolean controls;
     // \ End props
 
@@ -149,32 +195,58 @@ class ReactExoplayerView extends FrameLayout implements
     private final AudioManager audioManager;
     private final AudioBecomingNoisyReceiver audioBecomingNoisyReceiver;
 
-    private final Handler progressHandler = new Handler() {
-        @Override
-        public void handleMessage(Message msg) {
-            switch (msg.what) {
-                case SHOW_PROGRESS:
-                    if (player != null
-                            && player.getPlaybackState() == Player.STATE_READY
-                            && player.getPlayWhenReady()
-                            ) {
-                        long pos = player.getCurrentPosition();
-                        long bufferedDuration = player.getBufferedPercentage() * player.getDuration() / 100;
-                        eventEmitter.progressChanged(pos, bufferedDuration, player.getDuration(), getPositionInFirstPeriodMsForCurrentWindow(pos));
-                        msg = obtainMessage(SHOW_PROGRESS);
-                        sendMessageDelayed(msg, Math.round(mProgressUpdateInterval));
-                    }
-                    break;
+    @Override
+    public void onProgressTick() {
+        boolean traced = PlayerTrace.begin("RNV.progressTick");
+        try {
+            publishPlaybackSnapshot();
+            if (player != null
+                    && player.getPlaybackState() == Player.STATE_READY
+                    && player.getPlayWhenReady()
+                    ) {
+                // Sampling runs on every tick of every player, so it mustn't allocate
+                long pos = player.getCurrentPosition();
+                long duration = player.getDuration();
+                long bufferedDuration = player.getBufferedPosition();
+                updateLiveLatency();
+                eventEmitter.progressChanged(pos, bufferedDuration, duration, getPositionInFirstPeriodMsForCurrentWindow(pos),
+                        liveLatencyController.getLiveOffsetMs(), liveLatencyController.getDriftMs());
+            } else {
+                stopProgressUpdates();
             }
+        } finally {
+            PlayerTrace.end(traced);
         }
-    };
+    }
     
     public double getPositionInFirstPeriodMsForCurrentWindow(long currentPosition) {
-        Timeline.Window window = new Timeline.Window();
-        if(!player.getCurrentTimeline().isEmpty()) {    
-            player.getCurrentTimeline().getWindow(player.getCurrentWindowIndex(), window);
+        Timeline timeline = player.getCurrentTimeline();
+        int windowIndex = player.getCurrentWindowIndex();
+        // Timelines are immutable, so the window start time only changes along with them
+        if (timeline != progressTimeline || windowIndex != progressWindowIndex) {
+            progressTimeline = timeline;
+            progressWindowIndex = windowIndex;
+            progressWindowStartTimeMs = 0;
+            if (!timeline.isEmpty()) {
+                timeline.getWindow(windowIndex, progressWindow);
+                progressWindowStartTimeMs = progressWindow.windowStartTimeMs;
+            }
+        }
+        return progressWindowStartTimeMs + currentPosition;
+    }
+
+    /**
+     * Nudges the playback speed so that live streams converge on the target live offset.
+     */
+    private void updateLiveLatency() {
+        if (!liveLatencyController.isEnabled()) {
+            return;
+        }
+        liveLatencyController.updateLiveOffset(player);
+        float speed = liveLatencyController.getAdjustedSpeed(rate);
+        if (speed != player.getPlaybackParameters().speed) {
+            player.setPlaybackParameters(new PlaybackParameters(speed, 1f));
         }
-        return window.windowStartTimeMs + currentPosition;
     }
 
     public ReactExoplayerView(ThemedReactContext context, ReactExoplayerConfig config) {
@@ -189,6 +261,7 @@ class ReactExoplayerView extends FrameLayout implements
         audioManager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
         themedReactContext.addLifecycleEventListener(this);
         audioBecomingNoisyReceiver = new AudioBecomingNoisyReceiver(themedReactContext);
+        MemoryPressureHandler.getInstance(context).addListener(this);
 
         initializePlayer();
     }
@@ -198,6 +271,36 @@ class ReactExoplayerView extends FrameLayout implements
     public void setId(int id) {
         super.setId(id);
         eventEmitter.setViewId(id);
+        if (playbackSnapshot != null) {
+            PlaybackSnapshot.unregister(playbackSnapshotId, playbackSnapshot);
+            DecoderStats.unregister(playbackSnapshotId, decoderStats);
+            if (networkTraceRecorder != null) {
+                NetworkTraceRecorder.unregister(playbackSnapshotId, networkTraceRecorder);
+            }
+        }
+        playbackSnapshotId = id;
+        playbackSnapshot = PlaybackSnapshot.register(id);
+        DecoderStats.register(id, decoderStats);
+        if (networkTraceRecorder != null) {
+            NetworkTraceRecorder.register(id, networkTraceRecorder);
+        }
+        publishPlaybackSnapshot();
+    }
+
+    /**
+     * Publishes the playback state for synchronous reads through {@link ReactExoplayerModule}.
+     */
+    private void publishPlaybackSnapshot() {
+        if (player != null) {
+            publishPlaybackSnapshot(player.getPlaybackState() == Player.STATE_READY && player.getPlayWhenReady());
+        }
+    }
+
+    private void publishPlaybackSnapshot(boolean playing) {
+        if (playbackSnapshot != null) {
+            playbackSnapshot.publish(player.getCurrentPosition(), player.getBufferedPosition(),
+                    player.getDuration(), player.getPlaybackParameters().speed, playing);
+        }
     }
 
     private void createViews() {
@@ -212,6 +315,13 @@ class ReactExoplayerView extends FrameLayout implements
                 LayoutParams.MATCH_PARENT);
         exoPlayerView = new ExoPlayerView(getContext());
         exoPlayerView.setLayoutParams(layoutParams);
+        exoPlayerView.addOnLayoutChangeListener(new OnLayoutChangeListener() {
+            @Override
+            public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                       int oldLeft, int oldTop, int oldRight, int oldBottom) {
+                updateViewportSize();
+            }
+        });
 
         addView(exoPlayerView, 0, layoutParams);
     }
@@ -219,22 +329,171 @@ class ReactExoplayerView extends FrameLayout implements
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
-        initializePlayer();
+        isAttached = true;
+        getViewTreeObserver().addOnScrollChangedListener(visibilityListener);
+        getViewTreeObserver().addOnGlobalLayoutListener(visibilityListener);
+        if (!isOffscreen) {
+            initializePlayer();
+        }
+        updateOffscreenState();
     }
 
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
+        isAttached = false;
+        getViewTreeObserver().removeOnScrollChangedListener(visibilityListener);
+        getViewTreeObserver().removeOnGlobalLayoutListener(visibilityListener);
+        updateOffscreenState();
         /* We want to be able to continue playing audio when switching tabs.
          * Leave this here in case it causes issues.
          */
         // stopPlayback();
     }
 
+    private final VisibilityListener visibilityListener = new VisibilityListener();
+
+    private class VisibilityListener implements ViewTreeObserver.OnScrollChangedListener,
+            ViewTreeObserver.OnGlobalLayoutListener {
+        @Override
+        public void onScrollChanged() {
+            updateOffscreenState();
+        }
+
+        @Override
+        public void onGlobalLayout() {
+            updateOffscreenState();
+        }
+    }
+
+    private final Runnable enterOffscreenHold = new Runnable() {
+        @Override
+        public void run() {
+            // Keep the player warm at the lowest bitrate, so it's cheap to hold on to
+            if (player != null) {
+                offscreenHeld = true;
+                setSelectedTracks();
+            }
+        }
+    };
+
+    private void leaveOffscreenHold() {
+        if (offscreenHeld) {
+            // Restore the selected video track
+            offscreenHeld = false;
+            setSelectedTracks();
+        }
+    }
+
+    private final Runnable releaseOffscreen = new Runnable() {
+        @Override
+        public void run() {
+            if (player != null) {
+                releasePlayerUntilNeeded();
+            }
+        }
+    };
+
+    /**
+     * Pauses the player when its view leaves the screen, holds it at the lowest bitrate after
+     * {@link #offscreenHoldDelayMs} and releases it after {@link #offscreenReleaseDelayMs}. The
+     * player picks up from the same position once the view is back on screen.
+     */
+    private void updateOffscreenState() {
+        if (isInBackground) {
+            // Leaving the foreground is handled by the host lifecycle
+            return;
+        }
+        boolean offscreen = offscreenHandling
+                && (!isAttached || !isShown() || !getGlobalVisibleRect(visibleRect));
+        if (offscreen == isOffscreen) {
+            return;
+        }
+        isOffscreen = offscreen;
+        if (offscreen) {
+            setPlayWhenReady(false);
+            // The view's own queue doesn't run while it is detached, so use a handler
+            mainHandler.postDelayed(enterOffscreenHold, offscreenHoldDelayMs);
+            mainHandler.postDelayed(releaseOffscreen, offscreenReleaseDelayMs);
+        } else {
+            mainHandler.removeCallbacks(enterOffscreenHold);
+            mainHandler.removeCallbacks(releaseOffscreen);
+            if (player == null) {
+                initializePlayer();
+            } else {
+                leaveOffscreenHold();
+                setPlayWhenReady(!isPaused);
+            }
+        }
+    }
+
+    private final Runnable decoderStatsReport = new Runnable() {
+        @Override
+        public void run() {
+            if (player != null) {
+                eventEmitter.decoderStats(decoderStats.read());
+                mainHandler.postDelayed(this, decoderStatsIntervalMs);
+            }
+        }
+    };
+
+    private final Runnable qoeReport = new Runnable() {
+        @Override
+        public void run() {
+            if (qoeCollector != null) {
+                qoeCollector.update();
+                // Nothing to report before startup or once playback ended
+                if (qoeCollector.hasActivity()) {
+                    eventEmitter.qoeReport(qoeCollector, false);
+                }
+                mainHandler.postDelayed(this, qoeReportIntervalMs);
+            }
+        }
+    };
+
+    private void startQoeReports() {
+        qoeCollector = new QoeCollector();
+        player.addAnalyticsListener(qoeCollector);
+        mainHandler.postDelayed(qoeReport, qoeReportIntervalMs);
+    }
+
+    private void stopQoeReports() {
+        if (qoeCollector == null) {
+            return;
+        }
+        finishQoeSession(false);
+        player.removeAnalyticsListener(qoeCollector);
+        qoeCollector = null;
+        mainHandler.removeCallbacks(qoeReport);
+    }
+
+    /**
+     * Sends the final summary of the current playback session, if anything happened in it, and
+     * starts a new session. Once playback ended, the new session only starts when playback is
+     * restarted.
+     */
+    private void finishQoeSession(boolean playbackEnded) {
+        if (qoeCollector == null) {
+            return;
+        }
+        qoeCollector.update();
+        if (qoeCollector.hasActivity()) {
+            eventEmitter.qoeReport(qoeCollector, true);
+        }
+        if (playbackEnded) {
+            qoeCollector.end();
+        } else {
+            qoeCollector.reset();
+        }
+    }
+
     // LifecycleEventListener implementation
 
     @Override
     public void onHostResume() {
+        if (releasedUntilNeeded && !isPaused && !isOffscreen) {
+            initializePlayer();
+        }
         if (!playInBackground || !isInBackground) {
             setPlayWhenReady(!isPaused);
         }
@@ -263,7 +522,9 @@ class ReactExoplayerView extends FrameLayout implements
     @Override
     public void onBandwidthSample(int elapsedMs, long bytes, long bitrate) {
         if (mReportBandwidth) {
-            if (player == null) {
+            if (bandwidthReportIntervalMs > 0) {
+                aggregateBandwidthSample(elapsedMs, bytes, bitrate);
+            } else if (player == null) {
                 eventEmitter.bandwidthReport(bitrate, 0, 0, "-1");
             } else {
                 Format videoFormat = player.getVideoFormat();
@@ -275,8 +536,131 @@ class ReactExoplayerView extends FrameLayout implements
         }
     }
 
+    /**
+     * Folds a sample into the bandwidth summary, which is reported every
+     * {@link #bandwidthReportIntervalMs}, or right away when the throughput changes significantly.
+     */
+    private void aggregateBandwidthSample(int elapsedMs, long bytes, long bitrate) {
+        bandwidthAggregator.addSample(elapsedMs, bytes);
+        bitrateEstimate = bitrate;
+        if (bandwidthAggregator.hasSignificantChange()) {
+            mainHandler.removeCallbacks(bandwidthSummaryReport);
+            bandwidthSummaryReport.run();
+        } else if (!bandwidthSummaryScheduled) {
+            bandwidthSummaryScheduled = true;
+            mainHandler.postDelayed(bandwidthSummaryReport, bandwidthReportIntervalMs);
+        }
+    }
+
+    /**
+     * Credits each completed video media load to the rendition it loaded, which is ahead of the
+     * rendition being played by the length of the buffer.
+     */
+    private final AnalyticsListener renditionLoadListener = new AnalyticsListener() {
+        @Override
+        public void onLoadCompleted(EventTime eventTime, MediaSourceEventListener.LoadEventInfo loadEventInfo,
+                                    MediaSourceEventListener.MediaLoadData mediaLoadData) {
+            Format format = mediaLoadData.trackFormat;
+            if (!mReportBandwidth || bandwidthReportIntervalMs <= 0 || format == null
+                    || mediaLoadData.dataType != C.DATA_TYPE_MEDIA) {
+                return;
+            }
+            // Muxed media, such as HLS variants, is loaded as the default track type
+            boolean video = mediaLoadData.trackType == C.TRACK_TYPE_VIDEO
+                    || (mediaLoadData.trackType == C.TRACK_TYPE_DEFAULT && format.width != Format.NO_VALUE);
+            if (video) {
+                bandwidthAggregator.addRenditionLoad(format.id != null ? format.id : "-1",
+                        format.width, format.height, loadEventInfo.bytesLoaded, loadEventInfo.loadDurationMs);
+            }
+        }
+    };
+
+    private final Runnable bandwidthSummaryReport = new Runnable() {
+        @Override
+        public void run() {
+            bandwidthSummaryScheduled = false;
+            if (!bandwidthAggregator.hasUnreportedSamples()) {
+                return;
+            }
+            Format videoFormat = player != null ? player.getVideoFormat() : null;
+            eventEmitter.bandwidthSummary(bitrateEstimate,
+                    videoFormat != null ? videoFormat.height : 0,
+                    videoFormat != null ? videoFormat.width : 0,
+                    videoFormat != null ? videoFormat.id : "-1",
+                    bandwidthAggregator);
+            bandwidthAggregator.markReported();
+        }
+    };
+
+    // NetworkTimingDataSource.Listener implementation
+
+    @Override
+    public boolean isListeningForRequests() {
+        return reportRequestTiming || networkTraceRecorder != null;
+    }
+
+    @Override
+    public void onRequestCompleted(RequestTiming timing) {
+        if (reportRequestTiming) {
+            eventEmitter.requestTiming(timing);
+        }
+        if (networkTraceRecorder != null) {
+            networkTraceRecorder.addRequest(timing);
+        }
+    }
+
+    private void recordPlayerEvent(String type, String detail) {
+        if (networkTraceRecorder != null) {
+            networkTraceRecorder.addEvent(type, detail, player != null ? player.getCurrentPosition() : C.TIME_UNSET);
+        }
+    }
+
+    // AdaptiveLoadErrorHandlingPolicy.Listener implementation
+
+    @Override
+    public void onLoadRetry(String host, String reason, int errorCount, long retryDelayMs,
+                            AdaptiveLoadErrorHandlingPolicy.RetryCounters counters) {
+        eventEmitter.loadRetry(host, reason, errorCount, retryDelayMs, counters);
+    }
+
+    // MemoryPressureHandler.Listener implementation
+
+    @Override
+    public void onMemoryPressure(int level, int stage) {
+        if (player == null) {
+            return;
+        }
+        loadControl.trimAllocator();
+        boolean release = (stage >= MemoryPressureHandler.STAGE_RELEASE_PAUSED && isPaused)
+                || (stage >= MemoryPressureHandler.STAGE_RELEASE_IDLE && !player.getPlayWhenReady());
+        if (release) {
+            long freedBufferBytes = loadControl.getAllocator().getTotalBytesAllocated();
+            releasePlayerUntilNeeded();
+            eventEmitter.memoryTrim(level, stage, freedBufferBytes);
+        }
+    }
+
     // Internal methods
 
+    /**
+     * Releases the player to free its decoders and buffer. Unlike stopping playback, the player is
+     * prepared again from the same position once it is needed.
+     */
+    private void releasePlayerUntilNeeded() {
+        releasePlayer();
+        themedReactContext.addLifecycleEventListener(this);
+        releasedUntilNeeded = true;
+        maybePrewarmConnection();
+    }
+
+    /**
+     * Returns whether a player released until needed can be prepared again now. Players released
+     * offscreen or in the background are prepared again once back on screen or in the foreground.
+     */
+    private boolean canInitializeReleasedPlayer() {
+        return releasedUntilNeeded && !isOffscreen && !isInBackground;
+    }
+
     /**
      * Toggling the visibility of the player control view
      */
@@ -374,112 +758,159 @@ class ReactExoplayerView extends FrameLayout implements
     }
 
     private void initializePlayer() {
-        ReactExoplayerView self = this;
         // This ensures all props have been settled, to avoid async racing conditions.
         new Handler().postDelayed(new Runnable() {
             @Override
             public void run() {
-                if (player == null) {
-                    TrackSelection.Factory videoTrackSelectionFactory = new AdaptiveTrackSelection.Factory();
-                    trackSelector = new DefaultTrackSelector(videoTrackSelectionFactory);
-                    trackSelector.setParameters(trackSelector.buildUponParameters()
-                            .setMaxVideoBitrate(maxBitRate == 0 ? Integer.MAX_VALUE : maxBitRate));
-
-                    DefaultAllocator allocator = new DefaultAllocator(true, C.DEFAULT_BUFFER_SEGMENT_SIZE);
-                    DefaultLoadControl.Builder defaultLoadControlBuilder = new DefaultLoadControl.Builder();
-                    defaultLoadControlBuilder.setAllocator(allocator);
-                    defaultLoadControlBuilder.setBufferDurationsMs(minBufferMs, maxBufferMs, bufferForPlaybackMs, bufferForPlaybackAfterRebufferMs);
-                    defaultLoadControlBuilder.setTargetBufferBytes(-1);
-                    defaultLoadControlBuilder.setPrioritizeTimeOverSizeThresholds(true);
-                    DefaultLoadControl defaultLoadControl = defaultLoadControlBuilder.createDefaultLoadControl();
-                    DefaultRenderersFactory renderersFactory =
-                            new DefaultRenderersFactory(getContext())
-                                    .setExtensionRendererMode(DefaultRenderersFactory.EXTENSION_RENDERER_MODE_OFF);
-                    // TODO: Add drmSessionManager to 5th param from: https://github.com/react-native-community/react-native-video/pull/1445
-                    player = ExoPlayerFactory.newSimpleInstance(getContext(), renderersFactory,
-                            trackSelector, defaultLoadControl, null, bandwidthMeter);
-                    player.addListener(self);
-                    player.addMetadataOutput(self);
-                    exoPlayerView.setPlayer(player);
-                    audioBecomingNoisyReceiver.setListener(self);
-                    bandwidthMeter.addEventListener(new Handler(), self);
-                    setPlayWhenReady(!isPaused);
-                    playerNeedsSource = true;
-
-                    PlaybackParameters params = new PlaybackParameters(rate, 1f);
-                    player.setPlaybackParameters(params);
+                boolean traced = PlayerTrace.begin("RNV.initializePlayer");
+                try {
+                    initializePlayerNow();
+                } finally {
+                    PlayerTrace.end(traced);
                 }
-                if (playerNeedsSource && srcUri != null) {
-                    exoPlayerView.invalidateAspectRatio();
-
-                    ArrayList<MediaSource> mediaSourceList = buildTextSources();
-                    MediaSource videoSource = buildMediaSource(srcUri, extension);
-                    MediaSource mediaSource;
-                    if (mediaSourceList.size() == 0) {
-                        mediaSource = videoSource;
-                    } else {
-                        mediaSourceList.add(0, videoSource);
-                        MediaSource[] textSourceArray = mediaSourceList.toArray(
-                                new MediaSource[mediaSourceList.size()]
-                        );
-                        mediaSource = new MergingMediaSource(textSourceArray);
-                    }
+            }
+        }, 1);
+    }
 
-                    boolean haveResumePosition = resumeWindow != C.INDEX_UNSET;
-                    if (haveResumePosition) {
-                        player.seekTo(resumeWindow, resumePosition);
-                    }
-                    player.prepare(mediaSource, !haveResumePosition, false);
-                    playerNeedsSource = false;
+    private void initializePlayerNow() {
+        if (player == null) {
+            releasedUntilNeeded = false;
+            TrackSelection.Factory videoTrackSelectionFactory = config.buildTrackSelectionFactory();
+            trackSelector = new DefaultTrackSelector(videoTrackSelectionFactory);
+            DefaultTrackSelector.ParametersBuilder parametersBuilder = trackSelector.buildUponParameters()
+                    .setMaxVideoBitrate(maxBitRate == 0 ? Integer.MAX_VALUE : maxBitRate);
+            if (viewportWidth > 0 && viewportHeight > 0) {
+                parametersBuilder.setViewportSize(viewportWidth, viewportHeight, false);
+            }
+            trackSelector.setParameters(parametersBuilder);
 
-                    eventEmitter.loadStart();
-                    loadVideoStarted = true;
-                }
+            if (deviceBufferProfile == null) {
+                deviceBufferProfile = BufferProfile.forDevice(getContext());
+            }
+            BufferProfile bufferProfile = deviceBufferProfile.withConfig(minBufferMs, maxBufferMs,
+                    bufferForPlaybackMs, bufferForPlaybackAfterRebufferMs);
+            DefaultAllocator allocator = new DefaultAllocator(true, bufferProfile.segmentSize);
+            DefaultLoadControl.Builder defaultLoadControlBuilder = new DefaultLoadControl.Builder();
+            defaultLoadControlBuilder.setAllocator(allocator);
+            defaultLoadControlBuilder.setBufferDurationsMs(bufferProfile.minBufferMs, bufferProfile.maxBufferMs,
+                    bufferProfile.bufferForPlaybackMs, bufferProfile.bufferForPlaybackAfterRebufferMs);
+            defaultLoadControlBuilder.setTargetBufferBytes(-1);
+            defaultLoadControlBuilder.setPrioritizeTimeOverSizeThresholds(true);
+            DefaultLoadControl defaultLoadControl = defaultLoadControlBuilder.createDefaultLoadControl();
+            loadControl = new BudgetedLoadControl(defaultLoadControl,
+                    BufferMemoryCoordinator.getInstance(getContext()), bufferProfile.bufferForPlaybackAfterRebufferMs);
+            DefaultRenderersFactory renderersFactory =
+                    new DefaultRenderersFactory(getContext())
+                            .setExtensionRendererMode(DefaultRenderersFactory.EXTENSION_RENDERER_MODE_OFF);
+            // TODO: Add drmSessionManager to 5th param from: https://github.com/react-native-community/react-native-video/pull/1445
+            player = ExoPlayerFactory.newSimpleInstance(getContext(), renderersFactory,
+                    trackSelector, loadControl, null, bandwidthMeter);
+            player.addListener(this);
+            player.addMetadataOutput(this);
+            if (qoeReportIntervalMs > 0) {
+                startQoeReports();
+            }
+            player.addAnalyticsListener(decoderStats);
+            player.addAnalyticsListener(renditionLoadListener);
+            player.setVideoFrameMetadataListener(decoderStats);
+            if (decoderStatsIntervalMs > 0) {
+                mainHandler.postDelayed(decoderStatsReport, decoderStatsIntervalMs);
+            }
+            exoPlayerView.setPlayer(player);
+            audioBecomingNoisyReceiver.setListener(this);
+            bandwidthMeter.addEventListener(new Handler(), this);
+            setPlayWhenReady(!isPaused);
+            playerNeedsSource = true;
 
-                // Initializing the playerControlView
-                initializePlayerControl();
-                setControls(controls);
-                applyModifiers();
+            PlaybackParameters params = new PlaybackParameters(rate, 1f);
+            player.setPlaybackParameters(params);
+        }
+        if (playerNeedsSource && srcUri != null) {
+            exoPlayerView.invalidateAspectRatio();
+
+            ArrayList<MediaSource> mediaSourceList = buildTextSources();
+            MediaSource videoSource = buildMediaSource(srcUri, extension);
+            if (mediaSourceList.size() == 0) {
+                mediaSource = videoSource;
+            } else {
+                mediaSourceList.add(0, videoSource);
+                MediaSource[] textSourceArray = mediaSourceList.toArray(
+                        new MediaSource[mediaSourceList.size()]
+                );
+                mediaSource = new MergingMediaSource(textSourceArray);
             }
-        }, 1);
+
+            boolean haveResumePosition = resumeWindow != C.INDEX_UNSET;
+            if (haveResumePosition) {
+                player.seekTo(resumeWindow, resumePosition);
+            }
+            player.prepare(mediaSource, !haveResumePosition, false);
+            playerNeedsSource = false;
+
+            eventEmitter.loadStart();
+            loadVideoStarted = true;
+            if (networkTraceRecorder != null) {
+                networkTraceRecorder.startPage(srcUri.toString());
+            }
+        }
+
+        // Initializing the playerControlView
+        initializePlayerControl();
+        setControls(controls);
+        applyModifiers();
     }
 
     private MediaSource buildMediaSource(Uri uri, String overrideExtension) {
-        int type = Util.inferContentType(!TextUtils.isEmpty(overrideExtension) ? "." + overrideExtension
-                : uri.getLastPathSegment());
-        switch (type) {
-            case C.TYPE_SS:
-                return new SsMediaSource.Factory(
-                        new DefaultSsChunkSource.Factory(mediaDataSourceFactory),
-                        buildDataSourceFactory(false)
-                ).setLoadErrorHandlingPolicy(
-                        config.buildLoadErrorHandlingPolicy(minLoadRetryCount)
-                ).createMediaSource(uri);
-            case C.TYPE_DASH:
-                return new DashMediaSource.Factory(
-                        new DefaultDashChunkSource.Factory(mediaDataSourceFactory),
-                        buildDataSourceFactory(false)
-                ).setLoadErrorHandlingPolicy(
-                        config.buildLoadErrorHandlingPolicy(minLoadRetryCount)
-                ).createMediaSource(uri);
-            case C.TYPE_HLS:
-                return new HlsMediaSource.Factory(
-                        mediaDataSourceFactory
-                ).setLoadErrorHandlingPolicy(
-                        config.buildLoadErrorHandlingPolicy(minLoadRetryCount)
-                ).createMediaSource(uri);
-            case C.TYPE_OTHER:
-                return new ProgressiveMediaSource.Factory(
-                        mediaDataSourceFactory
-                ).setLoadErrorHandlingPolicy(
-                        config.buildLoadErrorHandlingPolicy(minLoadRetryCount)
-                ).createMediaSource(uri);
-            default: {
-                throw new IllegalStateException("Unsupported type: " + type);
+        boolean traced = PlayerTrace.begin("RNV.buildMediaSource");
+        try {
+            int type = Util.inferContentType(!TextUtils.isEmpty(overrideExtension) ? "." + overrideExtension
+                    : uri.getLastPathSegment());
+            switch (type) {
+                case C.TYPE_SS:
+                    return new SsMediaSource.Factory(
+                            new DefaultSsChunkSource.Factory(mediaDataSourceFactory),
+                            buildDataSourceFactory(false)
+                    ).setLoadErrorHandlingPolicy(
+                            buildLoadErrorHandlingPolicy()
+                    ).createMediaSource(uri);
+                case C.TYPE_DASH:
+                    return new DashMediaSource.Factory(
+                            new DefaultDashChunkSource.Factory(mediaDataSourceFactory),
+                            buildDataSourceFactory(false)
+                    ).setLoadErrorHandlingPolicy(
+                            buildLoadErrorHandlingPolicy()
+                    ).createMediaSource(uri);
+                case C.TYPE_HLS:
+                    return new HlsMediaSource.Factory(
+                            mediaDataSourceFactory
+                    ).setLoadErrorHandlingPolicy(
+                            buildLoadErrorHandlingPolicy()
+                    ).createMediaSource(uri);
+                case C.TYPE_OTHER:
+                    ExtractorsFactory extractorsFactory = PinnedExtractorsFactory.forSource(uri, overrideExtension);
+                    return new ProgressiveMediaSource.Factory(
+                            mediaDataSourceFactory,
+                            extractorsFactory != null ? extractorsFactory : new DefaultExtractorsFactory()
+                    ).setLoadErrorHandlingPolicy(
+                            buildLoadErrorHandlingPolicy()
+                    ).createMediaSource(uri);
+                default: {
+                    throw new IllegalStateException("Unsupported type: " + type);
+                }
             }
+        } finally {
+            PlayerTrace.end(traced);
         }
     }
 
+    private LoadErrorHandlingPolicy buildLoadErrorHandlingPolicy() {
+        LoadErrorHandlingPolicy policy = config.buildLoadErrorHandlingPolicy(minLoadRetryCount);
+        if (policy instanceof AdaptiveLoadErrorHandlingPolicy) {
+            ((AdaptiveLoadErrorHandlingPolicy) policy).setListener(new Handler(), this);
+        }
+        return policy;
+    }
+
     private ArrayList<MediaSource> buildTextSources() {
         ArrayList<MediaSource> textSources = new ArrayList<>();
         if (textTracks == null) {
@@ -510,12 +941,24 @@ class ReactExoplayerView extends FrameLayout implements
     private void releasePlayer() {
         if (player != null) {
             updateResumePosition();
+            publishPlaybackSnapshot(false);
+            stopQoeReports();
+            eventEmitter.cancelPendingEvents();
+            mainHandler.removeCallbacks(decoderStatsReport);
+            decoderStats.detach();
             player.release();
             player.removeMetadataOutput(this);
             trackSelector = null;
+            offscreenHeld = false;
+            loadControl = null;
+            mediaSource = null;
             player = null;
+            progressTimeline = null;
         }
-        progressHandler.removeMessages(SHOW_PROGRESS);
+        mainHandler.removeCallbacks(retryInPlace);
+        mainHandler.removeCallbacks(bandwidthSummaryReport);
+        bandwidthSummaryScheduled = false;
+        stopProgressUpdates();
         themedReactContext.removeLifecycleEventListener(this);
         audioBecomingNoisyReceiver.removeListener();
         bandwidthMeter.removeEventListener(this);
@@ -535,6 +978,10 @@ class ReactExoplayerView extends FrameLayout implements
         if (player == null) {
             return;
         }
+        // Offscreen players stay paused until they are back on screen
+        playWhenReady = playWhenReady && !isOffscreen;
+        // Players meant to be playing get priority over the shared buffer budget
+        loadControl.setForeground(playWhenReady);
 
         if (playWhenReady) {
             boolean hasAudioFocus = requestAudioFocus();
@@ -583,6 +1030,17 @@ class ReactExoplayerView extends FrameLayout implements
     private void stopPlayback() {
         onStopPlayback();
         releasePlayer();
+        MemoryPressureHandler.getInstance(getContext()).removeListener(this);
+        if (playbackSnapshot != null) {
+            PlaybackSnapshot.unregister(playbackSnapshotId, playbackSnapshot);
+            DecoderStats.unregister(playbackSnapshotId, decoderStats);
+            if (networkTraceRecorder != null) {
+                NetworkTraceRecorder.unregister(playbackSnapshotId, networkTraceRecorder);
+            }
+            playbackSnapshot = null;
+        }
+        mainHandler.removeCallbacks(enterOffscreenHold);
+        mainHandler.removeCallbacks(releaseOffscreen);
     }
 
     private void onStopPlayback() {
@@ -611,8 +1069,13 @@ class ReactExoplayerView extends FrameLayout implements
      * @return A new DataSource factory.
      */
     private DataSource.Factory buildDataSourceFactory(boolean useBandwidthMeter) {
-        return DataSourceUtil.getDefaultDataSourceFactory(this.themedReactContext,
+        DataSource.Factory factory = DataSourceUtil.getDefaultDataSourceFactory(this.themedReactContext,
                 useBandwidthMeter ? bandwidthMeter : null, requestHeaders);
+        factory = new NetworkTimingDataSource.Factory(factory, mainHandler, this);
+        if (cdnFailoverController != null) {
+            factory = new CdnFailoverDataSource.Factory(factory, cdnFailoverController);
+        }
+        return factory;
     }
 
     // AudioManager.OnAudioFocusChangeListener implementation
@@ -666,12 +1129,13 @@ class ReactExoplayerView extends FrameLayout implements
 
     @Override
     public void onPlayerStateChanged(boolean playWhenReady, int playbackState) {
+        publishPlaybackSnapshot();
         String text = "onStateChanged: playWhenReady=" + playWhenReady + ", playbackState=";
         switch (playbackState) {
             case Player.STATE_IDLE:
                 text += "idle";
                 eventEmitter.idle();
-                clearProgressMessageHandler();
+                stopProgressUpdates();
                 if (!playWhenReady) {
                     setKeepScreenOn(false);
                 }
@@ -679,14 +1143,15 @@ class ReactExoplayerView extends FrameLayout implements
             case Player.STATE_BUFFERING:
                 text += "buffering";
                 onBuffering(true);
-                clearProgressMessageHandler();
+                stopProgressUpdates();
                 setKeepScreenOn(preventsDisplaySleepDuringVideoPlayback);
                 break;
             case Player.STATE_READY:
                 text += "ready";
+                errorRecovery.reset();
                 eventEmitter.ready();
                 onBuffering(false);
-                startProgressHandler();
+                startProgressUpdates();
                 videoLoaded();
                 // Setting the visibility for the playerControlView
                 if (playerControlView != null) {
@@ -697,6 +1162,7 @@ class ReactExoplayerView extends FrameLayout implements
             case Player.STATE_ENDED:
                 text += "ended";
                 eventEmitter.end();
+                finishQoeSession(true);
                 onStopPlayback();
                 setKeepScreenOn(false);
                 break;
@@ -704,28 +1170,27 @@ class ReactExoplayerView extends FrameLayout implements
                 text += "unknown";
                 break;
         }
+        recordPlayerEvent(NetworkTraceRecorder.EVENT_STATE, text);
         Log.d(TAG, text);
     }
 
-    private void startProgressHandler() {
-        progressHandler.sendEmptyMessage(SHOW_PROGRESS);
+    /**
+     * Progress is sampled on the {@link ProgressTicker} shared by every player, so that players
+     * don't each wake up the main thread on their own schedule.
+     */
+    private void startProgressUpdates() {
+        ProgressTicker.getInstance().start(this, Math.round(mProgressUpdateInterval));
     }
 
-    /*
-        The progress message handler will duplicate recursions of the onProgressMessage handler
-        on change of player state from any state to STATE_READY with playWhenReady is true (when
-        the video is not paused). This clears all existing messages.
-     */
-    private void clearProgressMessageHandler() {
-         progressHandler.removeMessages(SHOW_PROGRESS);
+    private void stopProgressUpdates() {
+        ProgressTicker.getInstance().stop(this);
     }
 
     private void videoLoaded() {
         if (loadVideoStarted) {
             loadVideoStarted = false;
-            setSelectedAudioTrack(audioTrackType, audioTrackValue);
-            setSelectedVideoTrack(videoTrackType, videoTrackValue);
-            setSelectedTextTrack(textTrackType, textTrackValue);
+            setSelectedTracks();
+            seekToLiveTargetOffset();
             Format videoFormat = player.getVideoFormat();
             int width = videoFormat != null ? videoFormat.width : 0;
             int height = videoFormat != null ? videoFormat.height : 0;
@@ -735,6 +1200,20 @@ class ReactExoplayerView extends FrameLayout implements
         }
     }
 
+    /**
+     * Starts live playback at the target live offset, rather than at the default position of the
+     * stream, which speed adjustments alone would take a long time to converge from.
+     */
+    private void seekToLiveTargetOffset() {
+        if (!liveLatencyController.isEnabled()) {
+            return;
+        }
+        long liveOffsetMs = liveLatencyController.updateLiveOffset(player);
+        if (liveOffsetMs != C.TIME_UNSET && liveOffsetMs > liveLatencyController.getTargetOffsetMs()) {
+            player.seekTo(player.getCurrentPosition() + liveOffsetMs - liveLatencyController.getTargetOffsetMs());
+        }
+    }
+
     private WritableArray getAudioTrackInfo() {
         WritableArray audioTracks = Arguments.createArray();
 
@@ -823,6 +1302,7 @@ class ReactExoplayerView extends FrameLayout implements
 
     @Override
     public void onPositionDiscontinuity(int reason) {
+        publishPlaybackSnapshot();
         if (playerNeedsSource) {
             // This will only occur if the user has performed a seek whilst in the error state. Update the
             // resume position so that if the user then retries, playback will resume from the position to
@@ -844,6 +1324,7 @@ class ReactExoplayerView extends FrameLayout implements
 
     @Override
     public void onSeekProcessed() {
+        publishPlaybackSnapshot();
         eventEmitter.seek(player.getCurrentPosition(), seekTime);
         seekTime = C.TIME_UNSET;
     }
@@ -865,11 +1346,57 @@ class ReactExoplayerView extends FrameLayout implements
 
     @Override
     public void onPlaybackParametersChanged(PlaybackParameters params) {
+        publishPlaybackSnapshot();
+        if (liveLatencyController.isEnabled() && params.speed != rate) {
+            // Speed adjustments made to keep up with the live edge aren't rate changes
+            return;
+        }
         eventEmitter.playbackRateChange(params.speed);
     }
 
     @Override
     public void onPlayerError(ExoPlaybackException e) {
+        Log.e("ExoPlayer Exception", e.toString());
+        recordPlayerEvent(NetworkTraceRecorder.EVENT_ERROR, e.toString());
+        @ErrorRecovery.ErrorClass int errorClass = ErrorRecovery.classify(e);
+        switch (errorRecovery.nextAction(errorClass)) {
+            case ErrorRecovery.ACTION_SEEK_TO_LIVE_EDGE:
+                // Re-prepare the existing source at its default position, the live edge
+                player.prepare(mediaSource, true, false);
+                return;
+            case ErrorRecovery.ACTION_RETRY_IN_PLACE:
+                mainHandler.removeCallbacks(retryInPlace);
+                mainHandler.postDelayed(retryInPlace, errorRecovery.getRetryDelayMs());
+                return;
+            case ErrorRecovery.ACTION_REBUILD_SOURCE:
+                playerNeedsSource = true;
+                if (errorClass == ErrorRecovery.ERROR_CLASS_BEHIND_LIVE_WINDOW) {
+                    clearResumePosition();
+                } else {
+                    updateResumePosition();
+                }
+                initializePlayer();
+                return;
+            case ErrorRecovery.ACTION_FAIL:
+            default:
+                reportPlayerError(e);
+                playerNeedsSource = true;
+                updateResumePosition();
+                break;
+        }
+    }
+
+    private final Runnable retryInPlace = new Runnable() {
+        @Override
+        public void run() {
+            if (player != null && mediaSource != null
+                    && player.getPlaybackState() == Player.STATE_IDLE) {
+                player.prepare(mediaSource, false, false);
+            }
+        }
+    };
+
+    private void reportPlayerError(ExoPlaybackException e) {
         String errorString = "ExoPlaybackException type : " + e.type;
         Exception ex = e;
         if (e.type == ExoPlaybackException.TYPE_RENDERER) {
@@ -898,29 +1425,6 @@ class ReactExoplayerView extends FrameLayout implements
             errorString = getResources().getString(R.string.unrecognized_media_format);
         }
         eventEmitter.error(errorString, ex);
-        playerNeedsSource = true;
-        if (isBehindLiveWindow(e)) {
-            clearResumePosition();
-            initializePlayer();
-        } else {
-            updateResumePosition();
-        }
-    }
-
-    private static boolean isBehindLiveWindow(ExoPlaybackException e) {
-        Log.e("ExoPlayer Exception", e.toString());
-        if (e.type != ExoPlaybackException.TYPE_SOURCE) {
-            return false;
-        }
-        Throwable cause = e.getSourceException();
-        while (cause != null) {
-            if (cause instanceof BehindLiveWindowException ||
-                    cause instanceof HttpDataSource.HttpDataSourceException) {
-                return true;
-            }
-            cause = cause.getCause();
-        }
-        return false;
     }
 
     public int getTrackRendererIndex(int trackType) {
@@ -940,7 +1444,7 @@ class ReactExoplayerView extends FrameLayout implements
 
     // ReactExoplayerViewManager public api
 
-    public void setSrc(final Uri uri, final String extension, Map<String, String> headers) {
+    public void setSrc(final Uri uri, final String extension, Map<String, String> headers, List<Uri> alternateUris) {
         if (uri != null) {
             boolean isOriginalSourceNull = srcUri == null;
             boolean isSourceEqual = uri.equals(srcUri);
@@ -948,9 +1452,14 @@ class ReactExoplayerView extends FrameLayout implements
             this.srcUri = uri;
             this.extension = extension;
             this.requestHeaders = headers;
-            this.mediaDataSourceFactory =
-                    DataSourceUtil.getDefaultDataSourceFactory(this.themedReactContext, bandwidthMeter,
-                            this.requestHeaders);
+            if (!isSourceEqual || cdnFailoverController == null) {
+                cdnFailoverController = null;
+                if (alternateUris != null && !alternateUris.isEmpty()) {
+                    cdnFailoverController = new CdnFailoverController(uri, alternateUris);
+                    cdnFailoverController.probe(requestHeaders);
+                }
+            }
+            this.mediaDataSourceFactory = buildDataSourceFactory(true);
 
             if (!isOriginalSourceNull && !isSourceEqual) {
                 reloadSource();
@@ -958,14 +1467,82 @@ class ReactExoplayerView extends FrameLayout implements
         }
     }
 
+    public void setPreconnect(boolean preconnect) {
+        this.preconnect = preconnect;
+        maybePrewarmConnection();
+    }
+
+    /**
+     * Opens a connection to the source host ahead of time while a released player waits to be
+     * prepared again, so the handshakes are out of the way when it is. A player being prepared
+     * right away opens its own connection, which pre-warming would only race with.
+     */
+    private void maybePrewarmConnection() {
+        if (preconnect && srcUri != null && player == null && releasedUntilNeeded
+                && (isPaused || !canInitializeReleasedPlayer())) {
+            DataSourceUtil.prewarmConnection(themedReactContext, srcUri, requestHeaders);
+        }
+    }
+
     public void setProgressUpdateInterval(final float progressUpdateInterval) {
         mProgressUpdateInterval = progressUpdateInterval;
+        ProgressTicker.getInstance().setInterval(this, Math.round(progressUpdateInterval));
     }
 
     public void setReportBandwidth(boolean reportBandwidth) {
         mReportBandwidth = reportBandwidth;
     }
 
+    public void setReportRequestTiming(boolean reportRequestTiming) {
+        this.reportRequestTiming = reportRequestTiming;
+    }
+
+    public void setRecordNetworkTrace(boolean recordNetworkTrace) {
+        if (recordNetworkTrace == (networkTraceRecorder != null)) {
+            return;
+        }
+        if (recordNetworkTrace) {
+            networkTraceRecorder = new NetworkTraceRecorder();
+            if (playbackSnapshot != null) {
+                NetworkTraceRecorder.register(playbackSnapshotId, networkTraceRecorder);
+            }
+        } else {
+            NetworkTraceRecorder.unregister(playbackSnapshotId, networkTraceRecorder);
+            networkTraceRecorder = null;
+        }
+    }
+
+    public void setBandwidthReportInterval(long bandwidthReportIntervalMs) {
+        this.bandwidthReportIntervalMs = bandwidthReportIntervalMs;
+    }
+
+    public void setQoeReportInterval(long qoeReportIntervalMs) {
+        this.qoeReportIntervalMs = qoeReportIntervalMs;
+        if (player == null) {
+            return;
+        }
+        if (qoeReportIntervalMs <= 0) {
+            stopQoeReports();
+        } else if (qoeCollector == null) {
+            startQoeReports();
+        } else {
+            mainHandler.removeCallbacks(qoeReport);
+            mainHandler.postDelayed(qoeReport, qoeReportIntervalMs);
+        }
+    }
+
+    public void setDecoderStatsInterval(long decoderStatsIntervalMs) {
+        this.decoderStatsIntervalMs = decoderStatsIntervalMs;
+        mainHandler.removeCallbacks(decoderStatsReport);
+        if (player != null && decoderStatsIntervalMs > 0) {
+            mainHandler.postDelayed(decoderStatsReport, decoderStatsIntervalMs);
+        }
+    }
+
+    public void setEventThrottle(Map<String, EventThrottle.Policy> policies) {
+        eventEmitter.setThrottlePolicies(policies);
+    }
+
     public void setRawSrc(final Uri uri, final String extension) {
         if (uri != null) {
             boolean isOriginalSourceNull = srcUri == null;
@@ -973,6 +1550,7 @@ class ReactExoplayerView extends FrameLayout implements
 
             this.srcUri = uri;
             this.extension = extension;
+            this.cdnFailoverController = null;
             this.mediaDataSourceFactory = buildDataSourceFactory(true);
 
             if (!isOriginalSourceNull && !isSourceEqual) {
@@ -988,6 +1566,10 @@ class ReactExoplayerView extends FrameLayout implements
 
     private void reloadSource() {
         playerNeedsSource = true;
+        errorRecovery.reset();
+        finishQoeSession(false);
+        bandwidthAggregator.reset();
+        decoderStats.reset();
         initializePlayer();
     }
 
@@ -1016,7 +1598,44 @@ class ReactExoplayerView extends FrameLayout implements
     }
 
     public void setSelectedTrack(int trackType, String type, Dynamic value) {
-        if (player == null) return;
+        boolean traced = PlayerTrace.begin("RNV.setSelectedTrack");
+        try {
+            if (player == null) return;
+            DefaultTrackSelector.ParametersBuilder parametersBuilder = trackSelector.buildUponParameters();
+            selectTrack(parametersBuilder, trackType, type, value);
+            trackSelector.setParameters(parametersBuilder);
+        } finally {
+            PlayerTrace.end(traced);
+        }
+    }
+
+    /**
+     * Applies the audio, video and text track selections in a single parameters update, so the
+     * player reselects tracks once instead of after each of them, which could discard and reload
+     * what was just buffered.
+     */
+    private void setSelectedTracks() {
+        boolean traced = PlayerTrace.begin("RNV.setSelectedTracks");
+        try {
+            if (player == null) return;
+            DefaultTrackSelector.ParametersBuilder parametersBuilder = trackSelector.buildUponParameters()
+                    .setForceLowestBitrate(offscreenHeld);
+            selectTrack(parametersBuilder, C.TRACK_TYPE_AUDIO, audioTrackType, audioTrackValue);
+            selectTrack(parametersBuilder, C.TRACK_TYPE_VIDEO, videoTrackType, videoTrackValue);
+            selectTrack(parametersBuilder, C.TRACK_TYPE_TEXT, textTrackType, textTrackValue);
+            // The track selector only reselects tracks if the parameters changed
+            trackSelector.setParameters(parametersBuilder);
+        } finally {
+            PlayerTrace.end(traced);
+        }
+    }
+
+    /**
+     * Sets the selection of a track type on {@code parametersBuilder}, leaving it unchanged if the
+     * track type isn't mapped to a renderer yet.
+     */
+    private void selectTrack(DefaultTrackSelector.ParametersBuilder parametersBuilder, int trackType,
+                             String type, Dynamic value) {
         int rendererIndex = getTrackRendererIndex(trackType);
         if (rendererIndex == C.INDEX_UNSET) {
             return;
@@ -1034,13 +1653,8 @@ class ReactExoplayerView extends FrameLayout implements
             type = "default";
         }
 
-        DefaultTrackSelector.Parameters disableParameters = trackSelector.getParameters()
-                .buildUpon()
-                .setRendererDisabled(rendererIndex, true)
-                .build();
-
         if (type.equals("disabled")) {
-            trackSelector.setParameters(disableParameters);
+            parametersBuilder.setRendererDisabled(rendererIndex, true);
             return;
         } else if (type.equals("language")) {
             for (int i = 0; i < groups.length; ++i) {
@@ -1086,28 +1700,29 @@ class ReactExoplayerView extends FrameLayout implements
             groupIndex = getGroupIndexForDefaultLocale(groups);
         }
 
+        if (trackType == C.TRACK_TYPE_VIDEO && offscreenHeld) {
+            // Held offscreen, let the track selector force the lowest bitrate rendition instead
+            groupIndex = C.INDEX_UNSET;
+        }
+
         if (groupIndex == C.INDEX_UNSET && trackType == C.TRACK_TYPE_VIDEO && groups.length != 0) { // Video auto
-            // Add all tracks as valid options for ABR to choose from
-            TrackGroup group = groups.get(0);
-            tracks = new int[group.length];
-            groupIndex = 0;
-            for (int j = 0; j < group.length; j++) {
-                tracks[j] = j;
-            }
+            // Let ABR choose from all tracks without an override, which would bypass the viewport
+            // and bitrate constraints of the track selector
+            parametersBuilder
+                    .setRendererDisabled(rendererIndex, false)
+                    .clearSelectionOverrides(rendererIndex);
+            return;
         }
 
         if (groupIndex == C.INDEX_UNSET) {
-            trackSelector.setParameters(disableParameters);
+            parametersBuilder.setRendererDisabled(rendererIndex, true);
             return;
         }
 
-        DefaultTrackSelector.Parameters selectionParameters = trackSelector.getParameters()
-                .buildUpon()
+        parametersBuilder
                 .setRendererDisabled(rendererIndex, false)
                 .setSelectionOverride(rendererIndex, groups,
-                        new DefaultTrackSelector.SelectionOverride(groupIndex, tracks))
-                .build();
-        trackSelector.setParameters(selectionParameters);
+                        new DefaultTrackSelector.SelectionOverride(groupIndex, tracks));
     }
 
     private int getGroupIndexForDefaultLocale(TrackGroupArray groups) {
@@ -1155,6 +1770,10 @@ class ReactExoplayerView extends FrameLayout implements
             } else {
                 pausePlayback();
             }
+        } else if (!paused && canInitializeReleasedPlayer()) {
+            initializePlayer();
+        } else {
+            maybePrewarmConnection();
         }
     }
 
@@ -1177,7 +1796,16 @@ class ReactExoplayerView extends FrameLayout implements
     public void seekTo(long positionMs) {
         if (player != null) {
             seekTime = positionMs;
+            recordPlayerEvent(NetworkTraceRecorder.EVENT_SEEK, "seekTo: positionMs=" + positionMs);
             player.seekTo(positionMs);
+        } else if (releasedUntilNeeded) {
+            // Prepared again from the new position
+            seekTime = positionMs;
+            resumeWindow = resumeWindow != C.INDEX_UNSET ? resumeWindow : 0;
+            resumePosition = positionMs;
+            if (canInitializeReleasedPlayer()) {
+                initializePlayer();
+            }
         }
     }
 
@@ -1198,6 +1826,28 @@ class ReactExoplayerView extends FrameLayout implements
         }
     }
 
+    public void setLiveConfig(long targetOffsetMs, float minPlaybackSpeed, float maxPlaybackSpeed) {
+        liveLatencyController.setConfig(targetOffsetMs, minPlaybackSpeed, maxPlaybackSpeed);
+        if (player != null && !liveLatencyController.isEnabled()) {
+            player.setPlaybackParameters(new PlaybackParameters(rate, 1f));
+        }
+    }
+
+    public void setOffscreenConfig(boolean enabled, long holdDelayMs, long releaseDelayMs) {
+        offscreenHandling = enabled;
+        offscreenHoldDelayMs = holdDelayMs;
+        offscreenReleaseDelayMs = releaseDelayMs;
+        if (isOffscreen) {
+            // Restart the timers with the new delays
+            isOffscreen = false;
+            mainHandler.removeCallbacks(enterOffscreenHold);
+            mainHandler.removeCallbacks(releaseOffscreen);
+            leaveOffscreenHold();
+            setPlayWhenReady(!isPaused);
+        }
+        updateOffscreenState();
+    }
+
     public void setMinLoadRetryCountModifier(int newMinLoadRetryCount) {
         minLoadRetryCount = newMinLoadRetryCount;
         releasePlayer();
@@ -1212,11 +1862,36 @@ class ReactExoplayerView extends FrameLayout implements
         this.disableFocus = disableFocus;
     }
 
+    /**
+     * Constrains the video renditions to the size of the player view, so that a small player
+     * doesn't download renditions it can't display. While fullscreen the whole window is used.
+     */
+    private void updateViewportSize() {
+        int width = exoPlayerView.getWidth();
+        int height = exoPlayerView.getHeight();
+        Activity activity = themedReactContext.getCurrentActivity();
+        if (isFullscreen && activity != null) {
+            View decorView = activity.getWindow().getDecorView();
+            width = Math.max(width, decorView.getWidth());
+            height = Math.max(height, decorView.getHeight());
+        }
+        if (width <= 0 || height <= 0 || (width == viewportWidth && height == viewportHeight)) {
+            return;
+        }
+        viewportWidth = width;
+        viewportHeight = height;
+        if (trackSelector != null) {
+            trackSelector.setParameters(trackSelector.buildUponParameters()
+                    .setViewportSize(viewportWidth, viewportHeight, false));
+        }
+    }
+
     public void setFullscreen(boolean fullscreen) {
         if (fullscreen == isFullscreen) {
             return; // Avoid generating events when nothing is changing
         }
         isFullscreen = fullscreen;
+        updateViewportSize();
 
         Activity activity = themedReactContext.getCurrentActivity();
         if (activity == null) {
@@ -11,10 +11,12 @@ import com.facebook.react.common.MapBuilder;
 import com.facebook.react.uimanager.ThemedReactContext;
 import com.facebook.react.uimanager.ViewGroupManager;
 import com.facebook.react.uimanager.annotations.ReactProp;
-import com.google.android.exoplayer2.DefaultLoadControl;
+import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.upstream.RawResourceDataSource;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.annotation.Nullable;
@@ -27,6 +29,7 @@ public class ReactExoplayerViewManager extends ViewGroupManager<ReactExoplayerVi
     private static final String PROP_SRC_URI = "uri";
     private static final String PROP_SRC_TYPE = "type";
     private static final String PROP_SRC_HEADERS = "requestHeaders";
+    private static final String PROP_SRC_ALTERNATES = "alternates";
     private static final String PROP_RESIZE_MODE = "resizeMode";
     private static final String PROP_REPEAT = "repeat";
     private static final String PROP_SELECTED_AUDIO_TRACK = "selectedAudioTrack";
@@ -37,6 +40,7 @@ public class ReactExoplayerViewManager extends ViewGroupManager<ReactExoplayerVi
     private static final String PROP_SELECTED_TEXT_TRACK_VALUE = "value";
     private static final String PROP_TEXT_TRACKS = "textTracks";
     private static final String PROP_PAUSED = "paused";
+    private static final String PROP_PRECONNECT = "preconnect";
     private static final String PROP_MUTED = "muted";
     private static final String PROP_VOLUME = "volume";
     private static final String PROP_BUFFER_CONFIG = "bufferConfig";
@@ -44,9 +48,26 @@ public class ReactExoplayerViewManager extends ViewGroupManager<ReactExoplayerVi
     private static final String PROP_BUFFER_CONFIG_MAX_BUFFER_MS = "maxBufferMs";
     private static final String PROP_BUFFER_CONFIG_BUFFER_FOR_PLAYBACK_MS = "bufferForPlaybackMs";
     private static final String PROP_BUFFER_CONFIG_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS = "bufferForPlaybackAfterRebufferMs";
+    private static final String PROP_LIVE_CONFIG = "liveConfig";
+    private static final String PROP_LIVE_CONFIG_TARGET_OFFSET_MS = "targetOffsetMs";
+    private static final String PROP_LIVE_CONFIG_MIN_PLAYBACK_SPEED = "minPlaybackSpeed";
+    private static final String PROP_LIVE_CONFIG_MAX_PLAYBACK_SPEED = "maxPlaybackSpeed";
+    private static final String PROP_OFFSCREEN_CONFIG = "offscreenConfig";
+    private static final String PROP_OFFSCREEN_CONFIG_HOLD_DELAY_MS = "holdDelayMs";
+    private static final String PROP_OFFSCREEN_CONFIG_RELEASE_DELAY_MS = "releaseDelayMs";
     private static final String PROP_PREVENTS_DISPLAY_SLEEP_DURING_VIDEO_PLAYBACK = "preventsDisplaySleepDuringVideoPlayback";
     private static final String PROP_PROGRESS_UPDATE_INTERVAL = "progressUpdateInterval";
     private static final String PROP_REPORT_BANDWIDTH = "reportBandwidth";
+    private static final String PROP_BANDWIDTH_REPORT_INTERVAL = "bandwidthReportInterval";
+    private static final String PROP_REPORT_REQUEST_TIMING = "reportRequestTiming";
+    private static final String PROP_RECORD_NETWORK_TRACE = "recordNetworkTrace";
+    private static final String PROP_EVENT_THROTTLE = "eventThrottle";
+    private static final String PROP_QOE_REPORT_INTERVAL = "qoeReportInterval";
+    private static final String PROP_DECODER_STATS_INTERVAL = "decoderStatsInterval";
+    private static final String PROP_EVENT_THROTTLE_MIN_INTERVAL = "minInterval";
+    private static final String PROP_EVENT_THROTTLE_EDGE = "edge";
+    private static final String PROP_EVENT_THROTTLE_EDGE_TRAILING = "trailing";
+    private static final String PROP_EVENT_THROTTLE_CHANGE_THRESHOLD = "changeThreshold";
     private static final String PROP_SEEK = "seek";
     private static final String PROP_RATE = "rate";
     private static final String PROP_MIN_LOAD_RETRY_COUNT = "minLoadRetryCount";
@@ -107,6 +128,7 @@ public class ReactExoplayerViewManager extends ViewGroupManager<ReactExoplayerVi
         String uriString = src.hasKey(PROP_SRC_URI) ? src.getString(PROP_SRC_URI) : null;
         String extension = src.hasKey(PROP_SRC_TYPE) ? src.getString(PROP_SRC_TYPE) : null;
         Map<String, String> headers = src.hasKey(PROP_SRC_HEADERS) ? toStringMap(src.getMap(PROP_SRC_HEADERS)) : null;
+        List<Uri> alternates = src.hasKey(PROP_SRC_ALTERNATES) ? toUriList(src.getArray(PROP_SRC_ALTERNATES)) : null;
 
 
         if (TextUtils.isEmpty(uriString)) {
@@ -117,7 +139,7 @@ public class ReactExoplayerViewManager extends ViewGroupManager<ReactExoplayerVi
             Uri srcUri = Uri.parse(uriString);
 
             if (srcUri != null) {
-                videoView.setSrc(srcUri, extension, headers);
+                videoView.setSrc(srcUri, extension, headers, alternates);
             }
         } else {
             int identifier = context.getResources().getIdentifier(
@@ -209,6 +231,24 @@ public class ReactExoplayerViewManager extends ViewGroupManager<ReactExoplayerVi
         videoView.setPausedModifier(paused);
     }
 
+    @ReactProp(name = PROP_OFFSCREEN_CONFIG)
+    public void setOffscreenConfig(final ReactExoplayerView videoView, @Nullable ReadableMap offscreenConfig) {
+        long holdDelayMs = ReactExoplayerView.DEFAULT_OFFSCREEN_HOLD_DELAY_MS;
+        long releaseDelayMs = ReactExoplayerView.DEFAULT_OFFSCREEN_RELEASE_DELAY_MS;
+        if (offscreenConfig != null) {
+            holdDelayMs = offscreenConfig.hasKey(PROP_OFFSCREEN_CONFIG_HOLD_DELAY_MS)
+                    ? offscreenConfig.getInt(PROP_OFFSCREEN_CONFIG_HOLD_DELAY_MS) : holdDelayMs;
+            releaseDelayMs = offscreenConfig.hasKey(PROP_OFFSCREEN_CONFIG_RELEASE_DELAY_MS)
+                    ? offscreenConfig.getInt(PROP_OFFSCREEN_CONFIG_RELEASE_DELAY_MS) : releaseDelayMs;
+        }
+        videoView.setOffscreenConfig(offscreenConfig != null, holdDelayMs, releaseDelayMs);
+    }
+
+    @ReactProp(name = PROP_PRECONNECT, defaultBoolean = false)
+    public void setPreconnect(final ReactExoplayerView videoView, final boolean preconnect) {
+        videoView.setPreconnect(preconnect);
+    }
+
     @ReactProp(name = PROP_MUTED, defaultBoolean = false)
     public void setMuted(final ReactExoplayerView videoView, final boolean muted) {
         videoView.setMutedModifier(muted);
@@ -224,6 +264,54 @@ public class ReactExoplayerViewManager extends ViewGroupManager<ReactExoplayerVi
         videoView.setProgressUpdateInterval(progressUpdateInterval);
     }
 
+    @ReactProp(name = PROP_DECODER_STATS_INTERVAL, defaultInt = 0)
+    public void setDecoderStatsInterval(final ReactExoplayerView videoView, final int decoderStatsInterval) {
+        videoView.setDecoderStatsInterval(decoderStatsInterval);
+    }
+
+    @ReactProp(name = PROP_QOE_REPORT_INTERVAL, defaultInt = 0)
+    public void setQoeReportInterval(final ReactExoplayerView videoView, final int qoeReportInterval) {
+        videoView.setQoeReportInterval(qoeReportInterval);
+    }
+
+    @ReactProp(name = PROP_EVENT_THROTTLE)
+    public void setEventThrottle(final ReactExoplayerView videoView, @Nullable ReadableMap eventThrottle) {
+        Map<String, EventThrottle.Policy> policies = new HashMap<>();
+        if (eventThrottle != null) {
+            com.facebook.react.bridge.ReadableMapKeySetIterator iterator = eventThrottle.keySetIterator();
+            while (iterator.hasNextKey()) {
+                String eventName = iterator.nextKey();
+                ReadableMap config = eventThrottle.getMap(eventName);
+                if (config == null) {
+                    continue;
+                }
+                long minIntervalMs = config.hasKey(PROP_EVENT_THROTTLE_MIN_INTERVAL)
+                        ? config.getInt(PROP_EVENT_THROTTLE_MIN_INTERVAL) : 0;
+                boolean trailing = config.hasKey(PROP_EVENT_THROTTLE_EDGE)
+                        && PROP_EVENT_THROTTLE_EDGE_TRAILING.equals(config.getString(PROP_EVENT_THROTTLE_EDGE));
+                double changeThreshold = config.hasKey(PROP_EVENT_THROTTLE_CHANGE_THRESHOLD)
+                        ? config.getDouble(PROP_EVENT_THROTTLE_CHANGE_THRESHOLD) : 0;
+                policies.put(eventName, new EventThrottle.Policy(minIntervalMs, trailing, changeThreshold));
+            }
+        }
+        videoView.setEventThrottle(policies);
+    }
+
+    @ReactProp(name = PROP_RECORD_NETWORK_TRACE, defaultBoolean = false)
+    public void setRecordNetworkTrace(final ReactExoplayerView videoView, final boolean recordNetworkTrace) {
+        videoView.setRecordNetworkTrace(recordNetworkTrace);
+    }
+
+    @ReactProp(name = PROP_REPORT_REQUEST_TIMING, defaultBoolean = false)
+    public void setReportRequestTiming(final ReactExoplayerView videoView, final boolean reportRequestTiming) {
+        videoView.setReportRequestTiming(reportRequestTiming);
+    }
+
+    @ReactProp(name = PROP_BANDWIDTH_REPORT_INTERVAL, defaultInt = 0)
+    public void setBandwidthReportInterval(final ReactExoplayerView videoView, final int bandwidthReportInterval) {
+        videoView.setBandwidthReportInterval(bandwidthReportInterval);
+    }
+
     @ReactProp(name = PROP_REPORT_BANDWIDTH, defaultBoolean = false)
     public void setReportBandwidth(final ReactExoplayerView videoView, final boolean reportBandwidth) {
         videoView.setReportBandwidth(reportBandwidth);
@@ -281,23 +369,36 @@ public class ReactExoplayerViewManager extends ViewGroupManager<ReactExoplayerVi
 
     @ReactProp(name = PROP_BUFFER_CONFIG)
     public void setBufferConfig(final ReactExoplayerView videoView, @Nullable ReadableMap bufferConfig) {
-        int minBufferMs = DefaultLoadControl.DEFAULT_MIN_BUFFER_MS;
-        int maxBufferMs = DefaultLoadControl.DEFAULT_MAX_BUFFER_MS;
-        int bufferForPlaybackMs = DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_MS;
-        int bufferForPlaybackAfterRebufferMs = DefaultLoadControl.DEFAULT_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS;
         if (bufferConfig != null) {
-            minBufferMs = bufferConfig.hasKey(PROP_BUFFER_CONFIG_MIN_BUFFER_MS)
-                    ? bufferConfig.getInt(PROP_BUFFER_CONFIG_MIN_BUFFER_MS) : minBufferMs;
-            maxBufferMs = bufferConfig.hasKey(PROP_BUFFER_CONFIG_MAX_BUFFER_MS)
-                    ? bufferConfig.getInt(PROP_BUFFER_CONFIG_MAX_BUFFER_MS) : maxBufferMs;
-            bufferForPlaybackMs = bufferConfig.hasKey(PROP_BUFFER_CONFIG_BUFFER_FOR_PLAYBACK_MS)
-                    ? bufferConfig.getInt(PROP_BUFFER_CONFIG_BUFFER_FOR_PLAYBACK_MS) : bufferForPlaybackMs;
-            bufferForPlaybackAfterRebufferMs = bufferConfig.hasKey(PROP_BUFFER_CONFIG_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS)
-                    ? bufferConfig.getInt(PROP_BUFFER_CONFIG_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS) : bufferForPlaybackAfterRebufferMs;
+            // Values left out of the config fall back to the profile chosen for the device
+            int minBufferMs = bufferConfig.hasKey(PROP_BUFFER_CONFIG_MIN_BUFFER_MS)
+                    ? bufferConfig.getInt(PROP_BUFFER_CONFIG_MIN_BUFFER_MS) : C.LENGTH_UNSET;
+            int maxBufferMs = bufferConfig.hasKey(PROP_BUFFER_CONFIG_MAX_BUFFER_MS)
+                    ? bufferConfig.getInt(PROP_BUFFER_CONFIG_MAX_BUFFER_MS) : C.LENGTH_UNSET;
+            int bufferForPlaybackMs = bufferConfig.hasKey(PROP_BUFFER_CONFIG_BUFFER_FOR_PLAYBACK_MS)
+                    ? bufferConfig.getInt(PROP_BUFFER_CONFIG_BUFFER_FOR_PLAYBACK_MS) : C.LENGTH_UNSET;
+            int bufferForPlaybackAfterRebufferMs = bufferConfig.hasKey(PROP_BUFFER_CONFIG_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS)
+                    ? bufferConfig.getInt(PROP_BUFFER_CONFIG_BUFFER_FOR_PLAYBACK_AFTER_REBUFFER_MS) : C.LENGTH_UNSET;
             videoView.setBufferConfig(minBufferMs, maxBufferMs, bufferForPlaybackMs, bufferForPlaybackAfterRebufferMs);
         }
     }
 
+    @ReactProp(name = PROP_LIVE_CONFIG)
+    public void setLiveConfig(final ReactExoplayerView videoView, @Nullable ReadableMap liveConfig) {
+        long targetOffsetMs = 0;
+        float minPlaybackSpeed = LiveLatencyController.DEFAULT_MIN_PLAYBACK_SPEED;
+        float maxPlaybackSpeed = LiveLatencyController.DEFAULT_MAX_PLAYBACK_SPEED;
+        if (liveConfig != null) {
+            targetOffsetMs = liveConfig.hasKey(PROP_LIVE_CONFIG_TARGET_OFFSET_MS)
+                    ? liveConfig.getInt(PROP_LIVE_CONFIG_TARGET_OFFSET_MS) : targetOffsetMs;
+            minPlaybackSpeed = liveConfig.hasKey(PROP_LIVE_CONFIG_MIN_PLAYBACK_SPEED)
+                    ? (float) liveConfig.getDouble(PROP_LIVE_CONFIG_MIN_PLAYBACK_SPEED) : minPlaybackSpeed;
+            maxPlaybackSpeed = liveConfig.hasKey(PROP_LIVE_CONFIG_MAX_PLAYBACK_SPEED)
+                    ? (float) liveConfig.getDouble(PROP_LIVE_CONFIG_MAX_PLAYBACK_SPEED) : maxPlaybackSpeed;
+        }
+        videoView.setLiveConfig(targetOffsetMs, minPlaybackSpeed, maxPlaybackSpeed);
+    }
+
     private boolean startsWithValidScheme(String uriString) {
         return uriString.startsWith("http://")
                 || uriString.startsWith("https://")
@@ -314,6 +415,24 @@ public class ReactExoplayerViewManager extends ViewGroupManager<ReactExoplayerVi
         return ResizeMode.RESIZE_MODE_FIT;
     }
 
+    /**
+     * toUriList converts a {@link ReadableArray} of uri strings into a list of {@link Uri}, skipping
+     * the ones without a valid scheme.
+     */
+    private List<Uri> toUriList(@Nullable ReadableArray readableArray) {
+        List<Uri> result = new ArrayList<>();
+        if (readableArray == null) {
+            return result;
+        }
+        for (int i = 0; i < readableArray.size(); i++) {
+            String uriString = readableArray.getString(i);
+            if (!TextUtils.isEmpty(uriString) && startsWithValidScheme(uriString)) {
+                result.add(Uri.parse(uriString));
+            }
+        }
+        return result;
+    }
+
     /**
      * toStringMap converts a {@link ReadableMap} into a HashMap.
      *
@@ -0,0 +1,278 @@
+package com.brentvatne.exoplayer;
+
+import android.net.Uri;
+import android.os.SystemClock;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.exoplayer2.C;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Timings of one HTTP request made by a {@link NetworkTimingDataSource}, in the phases of a HAR
+ * entry. Durations are in milliseconds, and {@link C#TIME_UNSET} for phases the request didn't go
+ * through, such as DNS and connect on a pooled connection.
+ *
+ * <p>The phases inside the HTTP client are recorded by the listeners of
+ * {@link #wrapEventListenerFactory}, which the OkHttp client of {@link DataSourceUtil} is built with.
+ * Requests made by other clients only have the phases measured by the data source.
+ */
+class RequestTiming {
+
+    static final String ORIGIN_NETWORK = "network";
+    static final String ORIGIN_CACHE = "cache";
+
+    // The request being opened on the current thread, so the client's events can be tied to it
+    private static final ThreadLocal<RequestTiming> openingRequest = new ThreadLocal<>();
+
+    /**
+     * Returns a factory recording the client events of calls made while a {@link RequestTiming} is
+     * being opened on the calling thread, and forwarding every event to the listeners of
+     * {@code factory}, so the listeners the app set on its client keep receiving them.
+     */
+    static EventListener.Factory wrapEventListenerFactory(final EventListener.Factory factory) {
+        return new EventListener.Factory() {
+            @Override
+            public EventListener create(Call call) {
+                EventListener listener = factory.create(call);
+                RequestTiming timing = openingRequest.get();
+                return timing != null ? new EventRecorder(timing, listener) : listener;
+            }
+        };
+    }
+
+    final Uri uri;
+    final String host;
+    final long startTimeMs;
+    final long startWallTimeMs;
+
+    String contentType;
+    @Nullable String mimeType;
+    int statusCode;
+    boolean clientEvents;
+    boolean connectionAcquired;
+    boolean reusedConnection;
+    boolean failed;
+    long bytes;
+
+    long dnsMs = C.TIME_UNSET;
+    long connectMs = C.TIME_UNSET;
+    long tlsMs = C.TIME_UNSET;
+    long sendMs = C.TIME_UNSET;
+    long waitMs = C.TIME_UNSET;
+    long receiveMs = C.TIME_UNSET;
+    long totalMs = C.TIME_UNSET;
+
+    private long phaseStartTimeMs;
+    private long tlsStartTimeMs;
+    private long responseTimeMs = C.TIME_UNSET;
+
+    RequestTiming(Uri uri) {
+        this.uri = uri;
+        this.host = uri.getHost();
+        this.startTimeMs = SystemClock.elapsedRealtime();
+        this.startWallTimeMs = System.currentTimeMillis();
+    }
+
+    void beginOpen() {
+        openingRequest.set(this);
+    }
+
+    /**
+     * Called once the response headers are received, or the request failed.
+     */
+    void endOpen(boolean failed) {
+        openingRequest.remove();
+        this.failed = failed;
+        if (responseTimeMs == C.TIME_UNSET) {
+            // Without client events, the whole open is the time to the first byte
+            responseTimeMs = SystemClock.elapsedRealtime();
+            if (!clientEvents) {
+                waitMs = responseTimeMs - startTimeMs;
+            }
+        }
+    }
+
+    void end() {
+        long nowMs = SystemClock.elapsedRealtime();
+        if (!failed) {
+            receiveMs = nowMs - responseTimeMs;
+        }
+        totalMs = nowMs - startTimeMs;
+    }
+
+    /**
+     * Returns whether the response came from the network, rather than from the client's cache.
+     */
+    String getOrigin() {
+        return !clientEvents || connectionAcquired || failed ? ORIGIN_NETWORK : ORIGIN_CACHE;
+    }
+
+    /**
+     * Returns the time from sending the request to receiving the response headers.
+     */
+    long getTimeToFirstByteMs() {
+        if (waitMs == C.TIME_UNSET) {
+            return C.TIME_UNSET;
+        }
+        return sendMs != C.TIME_UNSET ? sendMs + waitMs : waitMs;
+    }
+
+    private static long add(long totalMs, long startTimeMs) {
+        long elapsedMs = SystemClock.elapsedRealtime() - startTimeMs;
+        return totalMs == C.TIME_UNSET ? elapsedMs : totalMs + elapsedMs;
+    }
+
+    /**
+     * Records the phases of a call, summed over its redirects. Events of a call are delivered on
+     * the thread executing it, which is the thread opening and reading the data source. Every event
+     * is forwarded to {@code listener}.
+     */
+    private static class EventRecorder extends EventListener {
+
+        private final RequestTiming timing;
+        private final EventListener listener;
+
+        EventRecorder(RequestTiming timing, EventListener listener) {
+            this.timing = timing;
+            this.listener = listener;
+            timing.clientEvents = true;
+        }
+
+        @Override
+        public void callStart(Call call) {
+            listener.callStart(call);
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            listener.dnsStart(call, domainName);
+            timing.phaseStartTimeMs = SystemClock.elapsedRealtime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            listener.dnsEnd(call, domainName, inetAddressList);
+            timing.dnsMs = add(timing.dnsMs, timing.phaseStartTimeMs);
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            listener.connectStart(call, inetSocketAddress, proxy);
+            timing.phaseStartTimeMs = SystemClock.elapsedRealtime();
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            listener.secureConnectStart(call);
+            timing.tlsStartTimeMs = SystemClock.elapsedRealtime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, @Nullable Handshake handshake) {
+            listener.secureConnectEnd(call, handshake);
+            timing.tlsMs = add(timing.tlsMs, timing.tlsStartTimeMs);
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                               @Nullable Protocol protocol) {
+            listener.connectEnd(call, inetSocketAddress, proxy, protocol);
+            // As in HAR, the connect time includes the TLS handshake
+            timing.connectMs = add(timing.connectMs, timing.phaseStartTimeMs);
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                                  @Nullable Protocol protocol, IOException ioe) {
+            listener.connectFailed(call, inetSocketAddress, proxy, protocol, ioe);
+            timing.connectMs = add(timing.connectMs, timing.phaseStartTimeMs);
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            listener.connectionAcquired(call, connection);
+            if (!timing.connectionAcquired) {
+                timing.reusedConnection = timing.connectMs == C.TIME_UNSET;
+            }
+            timing.connectionAcquired = true;
+        }
+
+        @Override
+        public void connectionReleased(Call call, Connection connection) {
+            listener.connectionReleased(call, connection);
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            listener.requestHeadersStart(call);
+            timing.phaseStartTimeMs = SystemClock.elapsedRealtime();
+        }
+
+        @Override
+        public void requestHeadersEnd(Call call, Request request) {
+            listener.requestHeadersEnd(call, request);
+            timing.sendMs = add(timing.sendMs, timing.phaseStartTimeMs);
+            timing.phaseStartTimeMs = SystemClock.elapsedRealtime();
+        }
+
+        @Override
+        public void requestBodyStart(Call call) {
+            listener.requestBodyStart(call);
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            listener.requestBodyEnd(call, byteCount);
+            timing.sendMs = add(timing.sendMs, timing.phaseStartTimeMs);
+            timing.phaseStartTimeMs = SystemClock.elapsedRealtime();
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            listener.responseHeadersStart(call);
+            timing.waitMs = add(timing.waitMs, timing.phaseStartTimeMs);
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            listener.responseHeadersEnd(call, response);
+            timing.statusCode = response.code();
+            timing.mimeType = response.header("Content-Type");
+            timing.responseTimeMs = SystemClock.elapsedRealtime();
+        }
+
+        @Override
+        public void responseBodyStart(Call call) {
+            listener.responseBodyStart(call);
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            listener.responseBodyEnd(call, byteCount);
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            listener.callEnd(call);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            listener.callFailed(call, ioe);
+        }
+    }
+}
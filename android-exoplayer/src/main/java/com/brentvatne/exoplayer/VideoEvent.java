@@ -0,0 +1,44 @@
+package com.brentvatne.exoplayer;
+
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.uimanager.events.Event;
+import com.facebook.react.uimanager.events.RCTEventEmitter;
+
+/**
+ * A player event sent through the {@link com.facebook.react.uimanager.events.EventDispatcher},
+ * which queues events and flushes them to JS once per frame. Coalescing events only keep the
+ * latest one per view and type that is queued in the same frame.
+ */
+class VideoEvent extends Event<VideoEvent> {
+
+    private final String eventName;
+    private final WritableMap eventData;
+    private final boolean coalescing;
+
+    VideoEvent(int viewId, String eventName, WritableMap eventData, boolean coalescing) {
+        super(viewId);
+        this.eventName = eventName;
+        this.eventData = eventData;
+        this.coalescing = coalescing;
+    }
+
+    @Override
+    public String getEventName() {
+        return eventName;
+    }
+
+    @Override
+    public boolean canCoalesce() {
+        return coalescing;
+    }
+
+    @Override
+    public void dispatch(RCTEventEmitter rctEventEmitter) {
+        boolean traced = PlayerTrace.begin("RNV.dispatch.", eventName);
+        try {
+            rctEventEmitter.receiveEvent(getViewTag(), eventName, eventData);
+        } finally {
+            PlayerTrace.end(traced);
+        }
+    }
+}
@@ -7,22 +7,27 @@ import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.ReactContext;
 import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
-import com.facebook.react.uimanager.events.RCTEventEmitter;
+import com.facebook.react.uimanager.UIManagerModule;
+import com.facebook.react.uimanager.events.EventDispatcher;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.decoder.DecoderCounters;
 import com.google.android.exoplayer2.metadata.Metadata;
 import com.google.android.exoplayer2.metadata.id3.Id3Frame;
 import com.google.android.exoplayer2.metadata.id3.TextInformationFrame;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.Map;
 
 class VideoEventEmitter {
 
-    private final RCTEventEmitter eventEmitter;
+    private final EventDispatcher eventDispatcher;
 
     private int viewId = View.NO_ID;
+    private final EventThrottle throttle = new EventThrottle();
 
     VideoEventEmitter(ReactContext reactContext) {
-        this.eventEmitter = reactContext.getJSModule(RCTEventEmitter.class);
+        this.eventDispatcher = reactContext.getNativeModule(UIManagerModule.class).getEventDispatcher();
     }
 
     private static final String EVENT_LOAD_START = "onVideoLoadStart";
@@ -46,6 +51,11 @@ class VideoEventEmitter {
     private static final String EVENT_AUDIO_BECOMING_NOISY = "onVideoAudioBecomingNoisy";
     private static final String EVENT_AUDIO_FOCUS_CHANGE = "onAudioFocusChanged";
     private static final String EVENT_PLAYBACK_RATE_CHANGE = "onPlaybackRateChange";
+    private static final String EVENT_LOAD_RETRY = "onVideoLoadRetry";
+    private static final String EVENT_MEMORY_TRIM = "onVideoMemoryTrim";
+    private static final String EVENT_QOE_REPORT = "onVideoQoeReport";
+    private static final String EVENT_DECODER_STATS = "onVideoDecoderStats";
+    private static final String EVENT_REQUEST_TIMING = "onVideoRequestTiming";
 
     static final String[] Events = {
             EVENT_LOAD_START,
@@ -68,6 +78,11 @@ class VideoEventEmitter {
             EVENT_AUDIO_FOCUS_CHANGE,
             EVENT_PLAYBACK_RATE_CHANGE,
             EVENT_BANDWIDTH,
+            EVENT_LOAD_RETRY,
+            EVENT_MEMORY_TRIM,
+            EVENT_QOE_REPORT,
+            EVENT_DECODER_STATS,
+            EVENT_REQUEST_TIMING,
     };
 
     @Retention(RetentionPolicy.SOURCE)
@@ -92,6 +107,11 @@ class VideoEventEmitter {
             EVENT_AUDIO_FOCUS_CHANGE,
             EVENT_PLAYBACK_RATE_CHANGE,
             EVENT_BANDWIDTH,
+            EVENT_LOAD_RETRY,
+            EVENT_MEMORY_TRIM,
+            EVENT_QOE_REPORT,
+            EVENT_DECODER_STATS,
+            EVENT_REQUEST_TIMING,
     })
     @interface VideoEvents {
     }
@@ -120,6 +140,8 @@ class VideoEventEmitter {
     private static final String EVENT_PROP_HAS_AUDIO_FOCUS = "hasAudioFocus";
     private static final String EVENT_PROP_IS_BUFFERING = "isBuffering";
     private static final String EVENT_PROP_PLAYBACK_RATE = "playbackRate";
+    private static final String EVENT_PROP_LIVE_LATENCY = "liveLatency";
+    private static final String EVENT_PROP_LIVE_DRIFT = "liveDrift";
 
     private static final String EVENT_PROP_ERROR = "error";
     private static final String EVENT_PROP_ERROR_STRING = "errorString";
@@ -129,12 +151,106 @@ class VideoEventEmitter {
 
     private static final String EVENT_PROP_BITRATE = "bitrate";   
 
+    private static final String EVENT_PROP_HOST = "host";
+    private static final String EVENT_PROP_REASON = "reason";
+    private static final String EVENT_PROP_ERROR_COUNT = "errorCount";
+    private static final String EVENT_PROP_RETRY_DELAY = "retryDelay";
+    private static final String EVENT_PROP_RETRY_COUNT = "retryCount";
+    private static final String EVENT_PROP_SERVER_ERROR_COUNT = "serverErrorCount";
+    private static final String EVENT_PROP_CLIENT_ERROR_COUNT = "clientErrorCount";
+    private static final String EVENT_PROP_TIMEOUT_COUNT = "timeoutCount";
+    private static final String EVENT_PROP_NETWORK_ERROR_COUNT = "networkErrorCount";
+    private static final String EVENT_PROP_CIRCUIT_OPEN_COUNT = "circuitOpenCount";
+
+    private static final String EVENT_PROP_LEVEL = "level";
+    private static final String EVENT_PROP_STAGE = "stage";
+    private static final String EVENT_PROP_FREED_BUFFER_BYTES = "freedBufferBytes";
+
+    private static final String EVENT_PROP_FINAL = "final";
+    private static final String EVENT_PROP_STARTUP_TIME = "startupTime";
+    private static final String EVENT_PROP_REBUFFER_COUNT = "rebufferCount";
+    private static final String EVENT_PROP_REBUFFER_TIME = "rebufferTime";
+    private static final String EVENT_PROP_REBUFFER_RATIO = "rebufferRatio";
+    private static final String EVENT_PROP_PLAY_TIME = "playTime";
+    private static final String EVENT_PROP_DROPPED_FRAMES = "droppedFrames";
+    private static final String EVENT_PROP_AVERAGE_BITRATE = "averageBitrate";
+    private static final String EVENT_PROP_SEEK_COUNT = "seekCount";
+    private static final String EVENT_PROP_AVERAGE_SEEK_LATENCY = "averageSeekLatency";
+    private static final String EVENT_PROP_LOAD_ERROR_COUNT = "loadErrorCount";
+    private static final String EVENT_PROP_RENDITIONS = "renditions";
+
+    private static final String EVENT_PROP_VIDEO = "video";
+    private static final String EVENT_PROP_AUDIO = "audio";
+    private static final String EVENT_PROP_DECODER_INIT_COUNT = "decoderInitCount";
+    private static final String EVENT_PROP_DECODER_RELEASE_COUNT = "decoderReleaseCount";
+    private static final String EVENT_PROP_INPUT_BUFFER_COUNT = "inputBufferCount";
+    private static final String EVENT_PROP_SKIPPED_INPUT_BUFFER_COUNT = "skippedInputBufferCount";
+    private static final String EVENT_PROP_RENDERED_OUTPUT_BUFFER_COUNT = "renderedOutputBufferCount";
+    private static final String EVENT_PROP_SKIPPED_OUTPUT_BUFFER_COUNT = "skippedOutputBufferCount";
+    private static final String EVENT_PROP_DROPPED_BUFFER_COUNT = "droppedBufferCount";
+    private static final String EVENT_PROP_MAX_CONSECUTIVE_DROPPED_BUFFER_COUNT = "maxConsecutiveDroppedBufferCount";
+    private static final String EVENT_PROP_DROPPED_TO_KEYFRAME_COUNT = "droppedToKeyframeCount";
+    private static final String EVENT_PROP_DROPPED_FRAME_RUNS = "droppedFrameRuns";
+    private static final String EVENT_PROP_MIN_LENGTH = "minLength";
+    private static final String EVENT_PROP_MAX_LENGTH = "maxLength";
+    private static final String EVENT_PROP_COUNT = "count";
+    private static final String EVENT_PROP_FRAME_PROCESSING_OFFSET = "averageFrameProcessingOffset";
+    private static final String EVENT_PROP_RENDERED_FRAMES = "renderedFrames";
+
+    private static final String EVENT_PROP_URL = "url";
+    private static final String EVENT_PROP_CONTENT_TYPE = "contentType";
+    private static final String EVENT_PROP_ORIGIN = "origin";
+    private static final String EVENT_PROP_STATUS_CODE = "statusCode";
+    private static final String EVENT_PROP_FAILED = "failed";
+    private static final String EVENT_PROP_REUSED_CONNECTION = "reusedConnection";
+    private static final String EVENT_PROP_BYTES = "bytes";
+    private static final String EVENT_PROP_DNS = "dns";
+    private static final String EVENT_PROP_CONNECT = "connect";
+    private static final String EVENT_PROP_TLS = "tls";
+    private static final String EVENT_PROP_TIME_TO_FIRST_BYTE = "timeToFirstByte";
+    private static final String EVENT_PROP_TRANSFER = "transfer";
+    private static final String EVENT_PROP_TOTAL = "total";
+    private static final String EVENT_PROP_HOSTS = "hosts";
+    private static final String EVENT_PROP_CONTENT_TYPES = "contentTypes";
+    private static final String EVENT_PROP_REQUESTS = "requests";
+    private static final String EVENT_PROP_ERRORS = "errors";
+    private static final String EVENT_PROP_CACHE_HITS = "cacheHits";
+    private static final String EVENT_PROP_REUSED_CONNECTIONS = "reusedConnections";
+    private static final String EVENT_PROP_MEAN = "mean";
+    private static final String EVENT_PROP_BUCKETS = "buckets";
+    private static final String EVENT_PROP_UPPER_BOUND = "upperBound";
+
+    private static final String EVENT_PROP_STATS = "stats";
+    private static final String EVENT_PROP_THROUGHPUT = "throughput";
+    private static final String EVENT_PROP_THROUGHPUT_P10 = "throughputP10";
+    private static final String EVENT_PROP_THROUGHPUT_P50 = "throughputP50";
+    private static final String EVENT_PROP_THROUGHPUT_P90 = "throughputP90";
+    private static final String EVENT_PROP_SAMPLE_COUNT = "sampleCount";
+
 
     void setViewId(int viewId) {
         this.viewId = viewId;
     }
 
+    /**
+     * Sets the throttle policies, keyed by event name. Only {@value #EVENT_PROGRESS},
+     * {@value #EVENT_BANDWIDTH} and {@value #EVENT_TIMED_METADATA} can be throttled; the other
+     * events each mark a state change JS must not miss.
+     */
+    void setThrottlePolicies(Map<String, EventThrottle.Policy> policies) {
+        throttle.setPolicies(policies);
+    }
+
+    /**
+     * Drops the throttled events still pending, so they don't arrive after the player is released.
+     */
+    void cancelPendingEvents() {
+        throttle.reset();
+    }
+
     void loadStart() {
+        // Nothing deferred for the previous source may follow the new one's load start
+        throttle.reset();
         receiveEvent(EVENT_LOAD_START, null);
     }
 
@@ -170,16 +286,82 @@ class VideoEventEmitter {
         receiveEvent(EVENT_LOAD, event);
     }
 
-    void progressChanged(double currentPosition, double bufferedDuration, double seekableDuration, double currentPlaybackTime) {
-        WritableMap event = Arguments.createMap();
-        event.putDouble(EVENT_PROP_CURRENT_TIME, currentPosition / 1000D);
-        event.putDouble(EVENT_PROP_PLAYABLE_DURATION, bufferedDuration / 1000D);
-        event.putDouble(EVENT_PROP_SEEKABLE_DURATION, seekableDuration / 1000D);
-        event.putDouble(EVENT_PROP_CURRENT_PLAYBACK_TIME, currentPlaybackTime);
-        receiveEvent(EVENT_PROGRESS, event);
+    // The values of the last deferred progress event, kept in fields so that deferring progress
+    // on every tick doesn't allocate
+    private double pendingCurrentPosition;
+    private double pendingBufferedDuration;
+    private double pendingSeekableDuration;
+    private double pendingCurrentPlaybackTime;
+    private long pendingLiveLatency;
+    private long pendingLiveDrift;
+
+    private final Runnable emitPendingProgress = new Runnable() {
+        @Override
+        public void run() {
+            emitProgress(pendingCurrentPosition, pendingBufferedDuration, pendingSeekableDuration,
+                    pendingCurrentPlaybackTime, pendingLiveLatency, pendingLiveDrift);
+        }
+    };
+
+    void progressChanged(double currentPosition, double bufferedDuration, double seekableDuration,
+                         double currentPlaybackTime, long liveLatency, long liveDrift) {
+        switch (throttle.check(EVENT_PROGRESS, currentPosition / 1000D)) {
+            case EventThrottle.DROP:
+                return;
+            case EventThrottle.DEFER:
+                pendingCurrentPosition = currentPosition;
+                pendingBufferedDuration = bufferedDuration;
+                pendingSeekableDuration = seekableDuration;
+                pendingCurrentPlaybackTime = currentPlaybackTime;
+                pendingLiveLatency = liveLatency;
+                pendingLiveDrift = liveDrift;
+                throttle.defer(EVENT_PROGRESS, emitPendingProgress);
+                return;
+            default:
+                emitProgress(currentPosition, bufferedDuration, seekableDuration, currentPlaybackTime,
+                        liveLatency, liveDrift);
+        }
+    }
+
+    private void emitProgress(double currentPosition, double bufferedDuration, double seekableDuration,
+                              double currentPlaybackTime, long liveLatency, long liveDrift) {
+        boolean traced = PlayerTrace.begin("RNV.build.", EVENT_PROGRESS);
+        try {
+            WritableMap event = Arguments.createMap();
+            event.putDouble(EVENT_PROP_CURRENT_TIME, currentPosition / 1000D);
+            event.putDouble(EVENT_PROP_PLAYABLE_DURATION, bufferedDuration / 1000D);
+            event.putDouble(EVENT_PROP_SEEKABLE_DURATION, seekableDuration / 1000D);
+            event.putDouble(EVENT_PROP_CURRENT_PLAYBACK_TIME, currentPlaybackTime);
+            if (liveLatency != C.TIME_UNSET) {
+                event.putDouble(EVENT_PROP_LIVE_LATENCY, liveLatency / 1000D);
+            }
+            if (liveDrift != C.TIME_UNSET) {
+                event.putDouble(EVENT_PROP_LIVE_DRIFT, liveDrift / 1000D);
+            }
+            receiveEvent(EVENT_PROGRESS, event);
+        } finally {
+            PlayerTrace.end(traced);
+        }
     }
 
-    void bandwidthReport(double bitRateEstimate, int height, int width, String id) {
+    void bandwidthReport(final double bitRateEstimate, final int height, final int width, final String id) {
+        switch (throttle.check(EVENT_BANDWIDTH, bitRateEstimate)) {
+            case EventThrottle.DROP:
+                return;
+            case EventThrottle.DEFER:
+                throttle.defer(EVENT_BANDWIDTH, new Runnable() {
+                    @Override
+                    public void run() {
+                        emitBandwidthReport(bitRateEstimate, height, width, id);
+                    }
+                });
+                return;
+            default:
+                emitBandwidthReport(bitRateEstimate, height, width, id);
+        }
+    }
+
+    private void emitBandwidthReport(double bitRateEstimate, int height, int width, String id) {
         WritableMap event = Arguments.createMap();
         event.putDouble(EVENT_PROP_BITRATE, bitRateEstimate);
         event.putInt(EVENT_PROP_WIDTH, width);
@@ -188,6 +370,223 @@ class VideoEventEmitter {
         receiveEvent(EVENT_BANDWIDTH, event);
     }    
 
+    /**
+     * Sends a bandwidth update carrying a summary of the samples aggregated since the start of
+     * playback. Summaries are already sent at a limited pace, so they aren't throttled.
+     */
+    void bandwidthSummary(double bitRateEstimate, int height, int width, String id,
+                          BandwidthAggregator aggregator) {
+        WritableMap event = Arguments.createMap();
+        event.putDouble(EVENT_PROP_BITRATE, bitRateEstimate);
+        event.putInt(EVENT_PROP_WIDTH, width);
+        event.putInt(EVENT_PROP_HEIGHT, height);
+        event.putString(EVENT_PROP_TRACK_ID, id);
+
+        WritableMap stats = Arguments.createMap();
+        stats.putDouble(EVENT_PROP_THROUGHPUT, aggregator.getEwma());
+        stats.putDouble(EVENT_PROP_THROUGHPUT_P10, aggregator.getPercentile(0.1));
+        stats.putDouble(EVENT_PROP_THROUGHPUT_P50, aggregator.getPercentile(0.5));
+        stats.putDouble(EVENT_PROP_THROUGHPUT_P90, aggregator.getPercentile(0.9));
+        stats.putInt(EVENT_PROP_SAMPLE_COUNT, aggregator.getSampleCount());
+        WritableArray renditions = Arguments.createArray();
+        for (BandwidthAggregator.Rendition rendition : aggregator.getRenditions()) {
+            WritableMap map = Arguments.createMap();
+            map.putString(EVENT_PROP_TRACK_ID, rendition.trackId);
+            map.putInt(EVENT_PROP_WIDTH, rendition.width);
+            map.putInt(EVENT_PROP_HEIGHT, rendition.height);
+            map.putDouble(EVENT_PROP_THROUGHPUT, rendition.getThroughput());
+            renditions.pushMap(map);
+        }
+        stats.putArray(EVENT_PROP_RENDITIONS, renditions);
+        event.putMap(EVENT_PROP_STATS, stats);
+        receiveEvent(EVENT_BANDWIDTH, event);
+    }
+
+    void loadRetry(String host, String reason, int errorCount, long retryDelayMs,
+                   AdaptiveLoadErrorHandlingPolicy.RetryCounters counters) {
+        WritableMap event = Arguments.createMap();
+        event.putString(EVENT_PROP_HOST, host);
+        event.putString(EVENT_PROP_REASON, reason);
+        event.putInt(EVENT_PROP_ERROR_COUNT, errorCount);
+        event.putDouble(EVENT_PROP_RETRY_DELAY, retryDelayMs / 1000D);
+        event.putInt(EVENT_PROP_RETRY_COUNT, counters.retryCount);
+        event.putInt(EVENT_PROP_SERVER_ERROR_COUNT, counters.serverErrorCount);
+        event.putInt(EVENT_PROP_CLIENT_ERROR_COUNT, counters.clientErrorCount);
+        event.putInt(EVENT_PROP_TIMEOUT_COUNT, counters.timeoutCount);
+        event.putInt(EVENT_PROP_NETWORK_ERROR_COUNT, counters.networkErrorCount);
+        event.putInt(EVENT_PROP_CIRCUIT_OPEN_COUNT, counters.circuitOpenCount);
+        receiveEvent(EVENT_LOAD_RETRY, event);
+    }
+
+    void memoryTrim(int level, int stage, long freedBufferBytes) {
+        WritableMap event = Arguments.createMap();
+        event.putInt(EVENT_PROP_LEVEL, level);
+        event.putInt(EVENT_PROP_STAGE, stage);
+        event.putDouble(EVENT_PROP_FREED_BUFFER_BYTES, freedBufferBytes);
+        receiveEvent(EVENT_MEMORY_TRIM, event);
+    }
+
+    void qoeReport(QoeCollector collector, boolean isFinal) {
+        WritableMap event = Arguments.createMap();
+        event.putBoolean(EVENT_PROP_FINAL, isFinal);
+        if (collector.getStartupTimeMs() != C.TIME_UNSET) {
+            event.putDouble(EVENT_PROP_STARTUP_TIME, collector.getStartupTimeMs() / 1000D);
+        }
+        event.putInt(EVENT_PROP_REBUFFER_COUNT, collector.getRebufferCount());
+        event.putDouble(EVENT_PROP_REBUFFER_TIME, collector.getRebufferTimeMs() / 1000D);
+        event.putDouble(EVENT_PROP_REBUFFER_RATIO, collector.getRebufferRatio());
+        event.putDouble(EVENT_PROP_PLAY_TIME, collector.getPlayTimeMs() / 1000D);
+        event.putInt(EVENT_PROP_DROPPED_FRAMES, collector.getDroppedFrames());
+        event.putDouble(EVENT_PROP_AVERAGE_BITRATE, collector.getAverageBitrate());
+        event.putInt(EVENT_PROP_SEEK_COUNT, collector.getSeekCount());
+        event.putDouble(EVENT_PROP_AVERAGE_SEEK_LATENCY, collector.getAverageSeekLatencyMs() / 1000D);
+        event.putInt(EVENT_PROP_ERROR_COUNT, collector.getErrorCount());
+        event.putInt(EVENT_PROP_LOAD_ERROR_COUNT, collector.getLoadErrorCount());
+
+        WritableArray renditions = Arguments.createArray();
+        for (QoeCollector.Rendition rendition : collector.getRenditions()) {
+            WritableMap map = Arguments.createMap();
+            map.putInt(EVENT_PROP_BITRATE, rendition.bitrate);
+            map.putInt(EVENT_PROP_WIDTH, rendition.width);
+            map.putInt(EVENT_PROP_HEIGHT, rendition.height);
+            map.putDouble(EVENT_PROP_PLAY_TIME, rendition.playTimeMs / 1000D);
+            renditions.pushMap(map);
+        }
+        event.putArray(EVENT_PROP_RENDITIONS, renditions);
+        receiveEvent(EVENT_QOE_REPORT, event);
+    }
+
+    void decoderStats(DecoderStats.Values values) {
+        receiveEvent(EVENT_DECODER_STATS, buildDecoderStats(values));
+    }
+
+    /**
+     * Builds the payload shared by the decoder stats event and
+     * {@link ReactExoplayerModule#getDecoderStats(int)}.
+     */
+    static WritableMap buildDecoderStats(DecoderStats.Values values) {
+        WritableMap stats = Arguments.createMap();
+        stats.putMap(EVENT_PROP_VIDEO, buildDecoderCounters(values.video));
+        stats.putMap(EVENT_PROP_AUDIO, buildDecoderCounters(values.audio));
+
+        WritableArray runs = Arguments.createArray();
+        int minLength = 1;
+        for (int i = 0; i < values.droppedRuns.length; i++) {
+            WritableMap run = Arguments.createMap();
+            run.putInt(EVENT_PROP_MIN_LENGTH, minLength);
+            if (i < DecoderStats.DROPPED_RUN_BUCKETS.length) {
+                run.putInt(EVENT_PROP_MAX_LENGTH, DecoderStats.DROPPED_RUN_BUCKETS[i]);
+                minLength = DecoderStats.DROPPED_RUN_BUCKETS[i] + 1;
+            }
+            run.putInt(EVENT_PROP_COUNT, values.droppedRuns[i]);
+            runs.pushMap(run);
+        }
+        stats.putArray(EVENT_PROP_DROPPED_FRAME_RUNS, runs);
+        stats.putDouble(EVENT_PROP_FRAME_PROCESSING_OFFSET, values.averageFrameProcessingOffsetUs / 1000000D);
+
+        WritableArray renditions = Arguments.createArray();
+        for (DecoderStats.Rendition rendition : values.renditions) {
+            WritableMap map = Arguments.createMap();
+            map.putInt(EVENT_PROP_BITRATE, rendition.bitrate);
+            map.putInt(EVENT_PROP_WIDTH, rendition.width);
+            map.putInt(EVENT_PROP_HEIGHT, rendition.height);
+            map.putInt(EVENT_PROP_RENDERED_FRAMES, rendition.renderedFrames);
+            map.putInt(EVENT_PROP_DROPPED_FRAMES, rendition.droppedFrames);
+            renditions.pushMap(map);
+        }
+        stats.putArray(EVENT_PROP_RENDITIONS, renditions);
+        return stats;
+    }
+
+    private static WritableMap buildDecoderCounters(DecoderCounters counters) {
+        WritableMap map = Arguments.createMap();
+        map.putInt(EVENT_PROP_DECODER_INIT_COUNT, counters.decoderInitCount);
+        map.putInt(EVENT_PROP_DECODER_RELEASE_COUNT, counters.decoderReleaseCount);
+        map.putInt(EVENT_PROP_INPUT_BUFFER_COUNT, counters.inputBufferCount);
+        map.putInt(EVENT_PROP_SKIPPED_INPUT_BUFFER_COUNT, counters.skippedInputBufferCount);
+        map.putInt(EVENT_PROP_RENDERED_OUTPUT_BUFFER_COUNT, counters.renderedOutputBufferCount);
+        map.putInt(EVENT_PROP_SKIPPED_OUTPUT_BUFFER_COUNT, counters.skippedOutputBufferCount);
+        map.putInt(EVENT_PROP_DROPPED_BUFFER_COUNT, counters.droppedBufferCount);
+        map.putInt(EVENT_PROP_MAX_CONSECUTIVE_DROPPED_BUFFER_COUNT, counters.maxConsecutiveDroppedBufferCount);
+        map.putInt(EVENT_PROP_DROPPED_TO_KEYFRAME_COUNT, counters.droppedToKeyframeCount);
+        return map;
+    }
+
+    void requestTiming(RequestTiming timing) {
+        WritableMap event = Arguments.createMap();
+        event.putString(EVENT_PROP_URL, timing.uri.toString());
+        event.putString(EVENT_PROP_HOST, timing.host);
+        event.putString(EVENT_PROP_CONTENT_TYPE, timing.contentType);
+        event.putString(EVENT_PROP_ORIGIN, timing.getOrigin());
+        if (timing.statusCode != 0) {
+            event.putInt(EVENT_PROP_STATUS_CODE, timing.statusCode);
+        }
+        event.putBoolean(EVENT_PROP_FAILED, timing.failed);
+        event.putBoolean(EVENT_PROP_REUSED_CONNECTION, timing.reusedConnection);
+        event.putDouble(EVENT_PROP_BYTES, timing.bytes);
+        putDuration(event, EVENT_PROP_DNS, timing.dnsMs);
+        putDuration(event, EVENT_PROP_CONNECT, timing.connectMs);
+        putDuration(event, EVENT_PROP_TLS, timing.tlsMs);
+        putDuration(event, EVENT_PROP_TIME_TO_FIRST_BYTE, timing.getTimeToFirstByteMs());
+        putDuration(event, EVENT_PROP_TRANSFER, timing.receiveMs);
+        putDuration(event, EVENT_PROP_TOTAL, timing.totalMs);
+        receiveEvent(EVENT_REQUEST_TIMING, event);
+    }
+
+    private static void putDuration(WritableMap map, String key, long durationMs) {
+        if (durationMs != C.TIME_UNSET) {
+            map.putDouble(key, durationMs / 1000D);
+        }
+    }
+
+    /**
+     * Builds the payload of {@link ReactExoplayerModule#getNetworkStats()}.
+     */
+    static WritableMap buildNetworkStats(NetworkTimingStats stats) {
+        WritableMap map = Arguments.createMap();
+        map.putMap(EVENT_PROP_HOSTS, buildNetworkGroups(stats.getHosts()));
+        map.putMap(EVENT_PROP_CONTENT_TYPES, buildNetworkGroups(stats.getContentTypes()));
+        return map;
+    }
+
+    private static WritableMap buildNetworkGroups(Map<String, NetworkTimingStats.Group> groups) {
+        WritableMap map = Arguments.createMap();
+        for (Map.Entry<String, NetworkTimingStats.Group> entry : groups.entrySet()) {
+            NetworkTimingStats.Group group = entry.getValue();
+            WritableMap groupMap = Arguments.createMap();
+            groupMap.putInt(EVENT_PROP_REQUESTS, group.requests);
+            groupMap.putInt(EVENT_PROP_ERRORS, group.errors);
+            groupMap.putInt(EVENT_PROP_CACHE_HITS, group.cacheHits);
+            groupMap.putInt(EVENT_PROP_REUSED_CONNECTIONS, group.reusedConnections);
+            groupMap.putDouble(EVENT_PROP_BYTES, group.bytes);
+            groupMap.putMap(EVENT_PROP_DNS, buildHistogram(group.dns));
+            groupMap.putMap(EVENT_PROP_CONNECT, buildHistogram(group.connect));
+            groupMap.putMap(EVENT_PROP_TLS, buildHistogram(group.tls));
+            groupMap.putMap(EVENT_PROP_TIME_TO_FIRST_BYTE, buildHistogram(group.timeToFirstByte));
+            groupMap.putMap(EVENT_PROP_TRANSFER, buildHistogram(group.transfer));
+            groupMap.putMap(EVENT_PROP_TOTAL, buildHistogram(group.total));
+            map.putMap(entry.getKey(), groupMap);
+        }
+        return map;
+    }
+
+    private static WritableMap buildHistogram(NetworkTimingStats.Histogram histogram) {
+        WritableMap map = Arguments.createMap();
+        map.putInt(EVENT_PROP_COUNT, histogram.count);
+        map.putDouble(EVENT_PROP_MEAN, histogram.getMeanMs() / 1000D);
+        WritableArray buckets = Arguments.createArray();
+        for (int i = 0; i < histogram.counts.length; i++) {
+            WritableMap bucket = Arguments.createMap();
+            if (i < NetworkTimingStats.BUCKET_BOUNDS_MS.length) {
+                bucket.putDouble(EVENT_PROP_UPPER_BOUND, NetworkTimingStats.BUCKET_BOUNDS_MS[i] / 1000D);
+            }
+            bucket.putInt(EVENT_PROP_COUNT, histogram.counts[i]);
+            buckets.pushMap(bucket);
+        }
+        map.putArray(EVENT_PROP_BUCKETS, buckets);
+        return map;
+    }
+
     void seek(long currentPosition, long seekTime) {
         WritableMap event = Arguments.createMap();
         event.putDouble(EVENT_PROP_CURRENT_TIME, currentPosition / 1000D);
@@ -244,7 +643,24 @@ class VideoEventEmitter {
         receiveEvent(EVENT_PLAYBACK_RATE_CHANGE, map);
     }
 
-    void timedMetadata(Metadata metadata) {
+    void timedMetadata(final Metadata metadata) {
+        switch (throttle.check(EVENT_TIMED_METADATA, Double.NaN)) {
+            case EventThrottle.DROP:
+                return;
+            case EventThrottle.DEFER:
+                throttle.defer(EVENT_TIMED_METADATA, new Runnable() {
+                    @Override
+                    public void run() {
+                        emitTimedMetadata(metadata);
+                    }
+                });
+                return;
+            default:
+                emitTimedMetadata(metadata);
+        }
+    }
+
+    private void emitTimedMetadata(Metadata metadata) {
         WritableArray metadataArray = Arguments.createArray();
 
         for (int i = 0; i < metadata.length(); i++) {
@@ -285,6 +701,13 @@ class VideoEventEmitter {
     }
 
     private void receiveEvent(@VideoEvents String type, WritableMap event) {
-        eventEmitter.receiveEvent(viewId, type, event);
+        // Only the latest progress and bandwidth are of interest, the other events must all arrive
+        boolean coalescing = EVENT_PROGRESS.equals(type) || EVENT_BANDWIDTH.equals(type);
+        boolean traced = PlayerTrace.begin("RNV.emit.", type);
+        try {
+            eventDispatcher.dispatchEvent(new VideoEvent(viewId, type, event, coalescing));
+        } finally {
+            PlayerTrace.end(traced);
+        }
     }
 }